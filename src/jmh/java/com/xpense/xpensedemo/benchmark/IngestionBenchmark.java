@@ -0,0 +1,85 @@
+package com.xpense.xpensedemo.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.xpense.xpensedemo.dto.OutputDTO;
+import com.xpense.xpensedemo.model.transaction.Output;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request CPU work on the write path before anything reaches the database: JSON binding,
+ * bean validation and entity mapping, each on its own and chained as the controller runs them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngestionBenchmark {
+
+    private static final byte[] OUTPUT_JSON =
+            "{\"description\":\"Groceries\",\"category\":\"Food\",\"amount\":42.5,\"date\":\"2025-08-14\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private ObjectReader outputReader;
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private OutputDTO outputDTO;
+
+    @Setup
+    public void setUp() throws IOException {
+        outputReader = new ObjectMapper().readerFor(OutputDTO.class);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        outputDTO = outputReader.readValue(OUTPUT_JSON);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public OutputDTO deserialize() throws IOException {
+        return outputReader.readValue(OUTPUT_JSON);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<OutputDTO>> validate() {
+        return validator.validate(outputDTO);
+    }
+
+    @Benchmark
+    public Output fromDTO() {
+        return Output.fromDTO(outputDTO);
+    }
+
+    @Benchmark
+    public Output deserializeValidateAndMap() throws IOException {
+        OutputDTO dto = outputReader.readValue(OUTPUT_JSON);
+        if (!validator.validate(dto).isEmpty()) {
+            throw new IllegalStateException("Benchmark payload must be valid");
+        }
+        return Output.fromDTO(dto);
+    }
+}
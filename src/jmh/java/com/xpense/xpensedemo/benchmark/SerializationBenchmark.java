@@ -0,0 +1,92 @@
+package com.xpense.xpensedemo.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.xpense.xpensedemo.dto.OutputView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding cost of a 10,000-row expense listing in each response format, with and without gzip.
+ * Payload sizes are printed once per fork, since JMH itself only reports time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final int ROWS = 10_000;
+    private static final String[] CATEGORIES = {"Food", "Transport", "Entertainment", "Health", "Education"};
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private ObjectWriter writer;
+    private List<OutputView> rows;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Same builder defaults as Boot's, which is where the application's mappers come from
+        JsonFactory factory = switch (format) {
+            case "json" -> new JsonFactory();
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> throw new IllegalArgumentException(format);
+        };
+        writer = Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build()
+                .writer();
+
+        rows = new ArrayList<>(ROWS);
+        LocalDate start = LocalDate.of(2025, 1, 1);
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.of(2025, 8, 14, 12, 0));
+        for (int i = 0; i < ROWS; i++) {
+            long categoryId = i % CATEGORIES.length + 1;
+            rows.add(new OutputView((long) i + 1, 5 + (i % 20_000) / 100.0, "Expense " + (i % 500),
+                    start.plusDays(i % 365), createdAt, 0L, categoryId, CATEGORIES[(int) categoryId - 1]));
+        }
+
+        System.out.printf("%n%s%s: %,d bytes for %,d rows%n", format, gzip ? "+gzip" : "", serialize().length, ROWS);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 20);
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes, 8192) : bytes) {
+            writer.writeValue(out, rows);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,89 @@
+package com.xpense.xpensedemo.benchmark;
+
+import com.xpense.xpensedemo.XpensedemoApplication;
+import com.xpense.xpensedemo.dto.IncomeDTO;
+import com.xpense.xpensedemo.dto.OutputDTO;
+import com.xpense.xpensedemo.service.IncomeService;
+import com.xpense.xpensedemo.service.OutputService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-level write costs against the in-memory H2 of the test profile: one transaction per
+ * single create, and one transaction per batch for the batch endpoints' code path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    private ConfigurableApplicationContext context;
+    private OutputService outputService;
+    private IncomeService incomeService;
+
+    private final OutputDTO outputDTO = new OutputDTO("Groceries", "Food", 42.5, "2025-08-14");
+    private final IncomeDTO incomeDTO = new IncomeDTO("Salary", "Employment", 3000.0, "2025-08-01");
+    private final List<OutputDTO> outputBatch = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(XpensedemoApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.xpense.xpensedemo=WARN",
+                        "--logging.level.org.springframework.web=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN");
+        outputService = context.getBean(OutputService.class);
+        incomeService = context.getBean(IncomeService.class);
+
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            outputBatch.add(new OutputDTO("Item " + i, i % 2 == 0 ? "Food" : "Transport", 10.0 + i, "2025-08-14"));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void createOutput() {
+        outputService.createOutput(outputDTO);
+    }
+
+    @Benchmark
+    public void createIncome() {
+        incomeService.createIncome(incomeDTO);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int createOutputsBatch() {
+        return outputService.createOutputs(outputBatch);
+    }
+}
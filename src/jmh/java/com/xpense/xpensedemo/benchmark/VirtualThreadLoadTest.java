@@ -0,0 +1,98 @@
+package com.xpense.xpensedemo.benchmark;
+
+import com.xpense.xpensedemo.XpensedemoApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load test comparing Tomcat on platform threads with Tomcat on virtual threads.
+ * Each client repeatedly lists a page of expenses for the given duration; the run reports
+ * requests per second and failures for both modes.
+ *
+ * <p>Arguments: {@code [clients] [seconds]}, defaulting to 1000 clients for 30 seconds. Extra
+ * Spring arguments can be passed with {@code -Dload.spring.args}, e.g. a PostgreSQL
+ * datasource URL; against the in-memory H2 queries return in microseconds, so the gap between
+ * the two modes widens with real network latency to the database.
+ */
+public class VirtualThreadLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+
+        List<String> results = new ArrayList<>();
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            results.add(run(virtualThreads, clients, Duration.ofSeconds(seconds)));
+        }
+
+        System.out.println();
+        System.out.printf("%-10s %8s %10s %10s%n", "mode", "clients", "req/s", "failures");
+        results.forEach(System.out::println);
+    }
+
+    private static String run(boolean virtualThreads, int clients, Duration duration) throws Exception {
+        List<String> springArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=jdbc:h2:mem:load;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.xpense.xpensedemo=WARN",
+                "--logging.level.org.springframework.web=WARN",
+                "--logging.level.org.hibernate.SQL=WARN"));
+        String extra = System.getProperty("load.spring.args", "").trim();
+        if (!extra.isEmpty()) {
+            springArgs.addAll(List.of(extra.split("\\s+")));
+        }
+
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext)
+                new SpringApplicationBuilder(XpensedemoApplication.class)
+                        .profiles("test")
+                        .run(springArgs.toArray(String[]::new))) {
+            URI uri = URI.create("http://localhost:" + context.getWebServer().getPort() + "/outputs?size=50");
+            LongAdder completed = new LongAdder();
+            LongAdder failed = new LongAdder();
+
+            // Clients run on virtual threads themselves so the driver is never the bottleneck
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+                 HttpClient http = HttpClient.newBuilder().executor(executor).build()) {
+                HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+                long deadline = System.nanoTime() + duration.toNanos();
+
+                List<Future<?>> workers = new ArrayList<>(clients);
+                for (int i = 0; i < clients; i++) {
+                    workers.add(executor.submit(() -> {
+                        while (System.nanoTime() < deadline) {
+                            try {
+                                HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                                (response.statusCode() == 200 ? completed : failed).increment();
+                            } catch (Exception e) {
+                                failed.increment();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+            }
+
+            double throughput = completed.sum() / (double) duration.toSeconds();
+            return String.format("%-10s %8d %10.0f %10d", virtualThreads ? "virtual" : "platform",
+                    clients, throughput, failed.sum());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.xpense.xpensedemo.analytics;
+
+import com.xpense.xpensedemo.dto.DateRange;
+import com.xpense.xpensedemo.enums.TransactionKind;
+
+/**
+ * Filtered group-by over one transaction kind.
+ *
+ * @param categoryId only rows of this category, or {@code null} for all of them
+ * @param limit      maximum number of groups returned
+ */
+public record AnalyticsQuery(
+    TransactionKind kind,
+    GroupBy groupBy,
+    DateRange range,
+    Long categoryId,
+    int limit
+) {
+}
@@ -0,0 +1,159 @@
+package com.xpense.xpensedemo.analytics;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transactions of one kind held column by column in primitive arrays, so a scan touches only the
+ * columns a query needs and walks them sequentially. Descriptions are dictionary-encoded.
+ *
+ * <p>Changes carry the row version they commit, and a row only ever moves to a higher one, so
+ * commit callbacks that run out of order cannot bring back an older state. Deleted ids are
+ * remembered until the next reload, so a late update cannot bring a deleted row back either.
+ *
+ * <p>Not thread-safe; {@link TransactionColumns} guards every access.
+ */
+final class ColumnStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    long[] ids = new long[INITIAL_CAPACITY];
+    long[] versions = new long[INITIAL_CAPACITY];
+    int[] epochDays = new int[INITIAL_CAPACITY];
+    // year * 12 + month - 1, kept alongside the day so grouping by month needs no date math
+    int[] months = new int[INITIAL_CAPACITY];
+    long[] cents = new long[INITIAL_CAPACITY];
+    int[] categoryIds = new int[INITIAL_CAPACITY];
+    int[] descriptionCodes = new int[INITIAL_CAPACITY];
+    // Deleted and superseded rows stay in place until the next compaction
+    final BitSet removed = new BitSet();
+    private int removedRows;
+    int size;
+
+    // Replaced, never changed in place, when a compaction drops the descriptions no row uses anymore
+    List<String> descriptions = new ArrayList<>();
+    private Map<String, Integer> descriptionCodesByValue = new HashMap<>();
+    private final Map<Long, Integer> rowsById = new HashMap<>();
+    private final Set<Long> deletedIds = new HashSet<>();
+
+    int maxCategoryId;
+    int minMonth = Integer.MAX_VALUE;
+    int maxMonth = Integer.MIN_VALUE;
+
+    void add(RowBatch batch) {
+        for (int i = 0; i < batch.size; i++) {
+            add(batch.ids[i], batch.versions[i], batch.epochDays[i], batch.cents[i], batch.categoryIds[i],
+                    batch.descriptions.get(i));
+        }
+    }
+
+    // A known id is replaced only by a higher version, which also makes replayed changes idempotent
+    void add(long id, long version, int epochDay, long amountCents, int categoryId, String description) {
+        if (deletedIds.contains(id)) {
+            return;
+        }
+        Integer current = rowsById.get(id);
+        if (current != null) {
+            if (versions[current] >= version) {
+                return;
+            }
+            drop(id);
+        }
+        if (size == ids.length) {
+            grow(size * 2);
+        }
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        int month = date.getYear() * 12 + date.getMonthValue() - 1;
+
+        ids[size] = id;
+        versions[size] = version;
+        epochDays[size] = epochDay;
+        months[size] = month;
+        cents[size] = amountCents;
+        categoryIds[size] = categoryId;
+        descriptionCodes[size] = code(description);
+        rowsById.put(id, size);
+        size++;
+
+        maxCategoryId = Math.max(maxCategoryId, categoryId);
+        minMonth = Math.min(minMonth, month);
+        maxMonth = Math.max(maxMonth, month);
+    }
+
+    void remove(long id) {
+        deletedIds.add(id);
+        drop(id);
+    }
+
+    void setCategory(long id, long version, int categoryId) {
+        Integer row = rowsById.get(id);
+        if (row != null && versions[row] < version) {
+            categoryIds[row] = categoryId;
+            versions[row] = version;
+            maxCategoryId = Math.max(maxCategoryId, categoryId);
+        }
+    }
+
+    int liveRows() {
+        return rowsById.size();
+    }
+
+    private void drop(long id) {
+        Integer row = rowsById.remove(id);
+        if (row != null) {
+            removed.set(row);
+            if (++removedRows > Math.max(INITIAL_CAPACITY, size / 4)) {
+                compact();
+            }
+        }
+    }
+
+    private int code(String description) {
+        return descriptionCodesByValue.computeIfAbsent(description, value -> {
+            descriptions.add(value);
+            return descriptions.size() - 1;
+        });
+    }
+
+    // Also re-encodes the descriptions, so values only replaced or deleted rows used are dropped
+    private void compact() {
+        List<String> previous = descriptions;
+        descriptions = new ArrayList<>();
+        descriptionCodesByValue = new HashMap<>();
+        int live = 0;
+        for (int row = 0; row < size; row++) {
+            if (removed.get(row)) {
+                continue;
+            }
+            ids[live] = ids[row];
+            versions[live] = versions[row];
+            epochDays[live] = epochDays[row];
+            months[live] = months[row];
+            cents[live] = cents[row];
+            categoryIds[live] = categoryIds[row];
+            descriptionCodes[live] = code(previous.get(descriptionCodes[row]));
+            rowsById.put(ids[live], live);
+            live++;
+        }
+        size = live;
+        removed.clear();
+        removedRows = 0;
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        months = Arrays.copyOf(months, capacity);
+        cents = Arrays.copyOf(cents, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        descriptionCodes = Arrays.copyOf(descriptionCodes, capacity);
+    }
+}
@@ -0,0 +1,24 @@
+package com.xpense.xpensedemo.analytics;
+
+import com.xpense.xpensedemo.exception.UnsupportedGroupByException;
+
+public enum GroupBy {
+    CATEGORY,
+    WEEKDAY,
+    MONTH,
+    DESCRIPTION;
+
+    public static GroupBy from(String value) {
+        for (GroupBy groupBy : values()) {
+            if (groupBy.name().equalsIgnoreCase(value)) {
+                return groupBy;
+            }
+        }
+        throw new UnsupportedGroupByException(value);
+    }
+
+    // Calendar groupings read best in calendar order, the others by size
+    boolean orderedByKey() {
+        return this == WEEKDAY || this == MONTH;
+    }
+}
@@ -0,0 +1,50 @@
+package com.xpense.xpensedemo.analytics;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Transactions collected by a write and handed to {@link TransactionColumns} once it commits.
+ * Values are copied in, so later changes to the source entities cannot leak into the snapshot.
+ */
+public class RowBatch {
+
+    long[] ids = new long[16];
+    long[] versions = new long[16];
+    int[] epochDays = new int[16];
+    long[] cents = new long[16];
+    int[] categoryIds = new int[16];
+    final List<String> descriptions = new ArrayList<>();
+    int size;
+
+    /**
+     * @param version the row's version once the write commits; the snapshot keeps the highest one
+     */
+    public void add(long id, long version, LocalDate date, double amount, String description, long categoryId) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            cents = Arrays.copyOf(cents, capacity);
+            categoryIds = Arrays.copyOf(categoryIds, capacity);
+        }
+        ids[size] = id;
+        versions[size] = version;
+        epochDays[size] = Math.toIntExact(date.toEpochDay());
+        cents[size] = Math.round(amount * 100);
+        categoryIds[size] = Math.toIntExact(categoryId);
+        descriptions.add(description);
+        size++;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+}
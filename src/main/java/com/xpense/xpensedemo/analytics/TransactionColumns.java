@@ -0,0 +1,340 @@
+package com.xpense.xpensedemo.analytics;
+
+import com.xpense.xpensedemo.dto.AnalyticsBucket;
+import com.xpense.xpensedemo.dto.RowVersion;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.model.summary.MonthlyRollupId;
+
+import java.time.DayOfWeek;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory columnar snapshot of all transactions, answering filtered group-by queries with a
+ * parallel scan instead of a trip through JPA. Writes are applied as they commit, by row version;
+ * queries see either all or none of a write. A query copies the columns it reads under the lock
+ * and scans the copy without it, so a long scan never holds up the commits writing to the store.
+ */
+public class TransactionColumns {
+
+    // Below this many groups every scan task sums into plain arrays indexed by key
+    static final int DENSE_KEY_LIMIT = 1 << 16;
+    // Splitting smaller scans costs more in task overhead than it saves
+    static final int MIN_ROWS_PER_TASK = 1 << 15;
+
+    private static final Comparator<Group> BY_KEY = Comparator.comparingInt(Group::key);
+    private static final Comparator<Group> BY_TOTAL = Comparator.comparingLong(Group::cents).reversed().thenComparing(BY_KEY);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<TransactionKind, ColumnStore> stores = emptyStores();
+    // Changes committed while a reload reads the tables, replayed onto the reloaded snapshot
+    private List<Consumer<Map<TransactionKind, ColumnStore>>> pendingDuringReload;
+
+    public void add(TransactionKind kind, RowBatch batch) {
+        if (!batch.isEmpty()) {
+            write(stores -> stores.get(kind).add(batch));
+        }
+    }
+
+    public void remove(TransactionKind kind, Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            write(stores -> ids.forEach(stores.get(kind)::remove));
+        }
+    }
+
+    /**
+     * @param rows the moved rows with their versions after the move
+     */
+    public void recategorize(TransactionKind kind, Collection<RowVersion> rows, int categoryId) {
+        if (!rows.isEmpty()) {
+            write(stores -> rows.forEach(row -> stores.get(kind).setCategory(row.id(), row.version(), categoryId)));
+        }
+    }
+
+    /**
+     * Starts recording changes so that {@link #finishReload(Map)} loses none of the writes that
+     * commit between reading the tables and swapping in the result. Call before reading.
+     */
+    public void beginReload() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringReload = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void finishReload(Map<TransactionKind, RowBatch> rows) {
+        Map<TransactionKind, ColumnStore> reloaded = emptyStores();
+        rows.forEach((kind, batch) -> reloaded.get(kind).add(batch));
+
+        lock.writeLock().lock();
+        try {
+            if (pendingDuringReload != null) {
+                pendingDuringReload.forEach(change -> change.accept(reloaded));
+            }
+            pendingDuringReload = null;
+            stores = reloaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size(TransactionKind kind) {
+        lock.readLock().lock();
+        try {
+            return stores.get(kind).liveRows();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Distinct descriptions held in the dictionary, including ones only removed rows still use
+    int descriptionCount(TransactionKind kind) {
+        lock.readLock().lock();
+        try {
+            return stores.get(kind).descriptions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs the query across the common fork-join pool, one slice of rows per task.
+     *
+     * @param categoryNames names category keys; only called outside the lock, so it may hit the database
+     */
+    public List<AnalyticsBucket> aggregate(AnalyticsQuery query, IntFunction<String> categoryNames) {
+        Segment segment;
+        lock.readLock().lock();
+        try {
+            segment = Segment.copyOf(stores.get(query.kind()), query.groupBy());
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Group> groups = groups(segment, query);
+
+        return groups.stream()
+                .map(group -> new AnalyticsBucket(
+                        query.groupBy() == GroupBy.CATEGORY ? categoryName(group.key(), categoryNames) : group.label(),
+                        group.cents() / 100.0,
+                        group.count()))
+                .toList();
+    }
+
+    private static String categoryName(int categoryId, IntFunction<String> categoryNames) {
+        return categoryId == MonthlyRollupId.NO_CATEGORY ? null : categoryNames.apply(categoryId);
+    }
+
+    private static List<Group> groups(Segment segment, AnalyticsQuery query) {
+        if (segment.liveRows() == 0) {
+            return List.of();
+        }
+        KeyColumn keyColumn = segment.keyColumn();
+        Scan scan = new Scan(segment, query);
+
+        int tasks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), segment.size() / MIN_ROWS_PER_TASK));
+        int rowsPerTask = Math.ceilDiv(segment.size(), tasks);
+        Accumulator total = IntStream.range(0, tasks)
+                .parallel()
+                .mapToObj(task -> scan.run(task * rowsPerTask, Math.min(segment.size(), (task + 1) * rowsPerTask)))
+                .reduce(Accumulator::merge)
+                .orElseThrow();
+
+        List<Group> groups = new ArrayList<>();
+        total.forEach((key, cents, count) -> groups.add(new Group(key, keyColumn.label(key), cents, count)));
+        groups.sort(query.groupBy().orderedByKey() ? BY_KEY : BY_TOTAL);
+        return groups.size() > query.limit() ? groups.subList(0, query.limit()) : groups;
+    }
+
+    private static Map<TransactionKind, ColumnStore> emptyStores() {
+        Map<TransactionKind, ColumnStore> stores = new EnumMap<>(TransactionKind.class);
+        for (TransactionKind kind : TransactionKind.values()) {
+            stores.put(kind, new ColumnStore());
+        }
+        return stores;
+    }
+
+    private void write(Consumer<Map<TransactionKind, ColumnStore>> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(stores);
+            if (pendingDuringReload != null) {
+                pendingDuringReload.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private record Group(int key, String label, long cents, long count) {
+    }
+
+    /**
+     * The rows of one store as a query reads them, copied so the scan can run outside the lock.
+     * Only the columns the scan touches are copied, the grouping column among them.
+     */
+    private record Segment(int size, int liveRows, int[] epochDays, int[] categoryIds, long[] cents, BitSet removed,
+                           KeyColumn keyColumn) {
+
+        static Segment copyOf(ColumnStore store, GroupBy groupBy) {
+            int size = store.size;
+            int[] categoryIds = Arrays.copyOf(store.categoryIds, size);
+            KeyColumn keyColumn = switch (groupBy) {
+                case CATEGORY -> new KeyColumn(groupBy, categoryIds, 0, store.maxCategoryId + 1, null);
+                case WEEKDAY -> new KeyColumn(groupBy, null, 0, 7, null);
+                case MONTH -> new KeyColumn(groupBy, Arrays.copyOf(store.months, size), store.minMonth,
+                        store.maxMonth - store.minMonth + 1, null);
+                // The dictionary only grows between compactions, which replace it, so a copy of the
+                // list as it is now names every code in the copied column
+                case DESCRIPTION -> new KeyColumn(groupBy, Arrays.copyOf(store.descriptionCodes, size), 0,
+                        store.descriptions.size(), List.copyOf(store.descriptions));
+            };
+            return new Segment(size, store.liveRows(), Arrays.copyOf(store.epochDays, size), categoryIds,
+                    Arrays.copyOf(store.cents, size), (BitSet) store.removed.clone(), keyColumn);
+        }
+    }
+
+    /**
+     * The column a query groups by, shifted so keys start at zero. Weekdays have no column and
+     * are derived from the epoch day, Monday being 0.
+     */
+    private record KeyColumn(GroupBy groupBy, int[] values, int offset, int keyCount, List<String> descriptions) {
+
+        int key(int row, int epochDay) {
+            // 1970-01-01 was a Thursday
+            return values == null ? Math.floorMod(epochDay + 3, 7) : values[row] - offset;
+        }
+
+        String label(int key) {
+            return switch (groupBy) {
+                case CATEGORY -> null;
+                case WEEKDAY -> DayOfWeek.of(key + 1).name();
+                case MONTH -> YearMonth.of((key + offset) / 12, (key + offset) % 12 + 1).toString();
+                case DESCRIPTION -> descriptions.get(key);
+            };
+        }
+    }
+
+    private record Scan(Segment segment, KeyColumn keyColumn, int fromDay, int toDay, int categoryId) {
+
+        Scan(Segment segment, AnalyticsQuery query) {
+            this(segment, segment.keyColumn(),
+                    Math.toIntExact(query.range().from().toEpochDay()),
+                    Math.toIntExact(query.range().to().toEpochDay()),
+                    query.categoryId() == null ? -1 : Math.toIntExact(query.categoryId()));
+        }
+
+        Accumulator run(int start, int end) {
+            Accumulator accumulator = keyColumn.keyCount() <= DENSE_KEY_LIMIT
+                    ? new DenseAccumulator(keyColumn.keyCount())
+                    : new SparseAccumulator();
+            int[] epochDays = segment.epochDays();
+            int[] categoryIds = segment.categoryIds();
+            long[] cents = segment.cents();
+            BitSet removed = segment.removed();
+
+            for (int row = start; row < end; row++) {
+                int epochDay = epochDays[row];
+                if (epochDay < fromDay || epochDay > toDay
+                        || (categoryId >= 0 && categoryIds[row] != categoryId)
+                        || removed.get(row)) {
+                    continue;
+                }
+                accumulator.add(keyColumn.key(row, epochDay), cents[row]);
+            }
+            return accumulator;
+        }
+    }
+
+    private interface GroupSink {
+        void accept(int key, long cents, long count);
+    }
+
+    private interface Accumulator {
+        void add(int key, long cents);
+
+        Accumulator merge(Accumulator other);
+
+        void forEach(GroupSink sink);
+    }
+
+    private static final class DenseAccumulator implements Accumulator {
+
+        private final long[] cents;
+        private final long[] counts;
+
+        DenseAccumulator(int keyCount) {
+            this.cents = new long[keyCount];
+            this.counts = new long[keyCount];
+        }
+
+        @Override
+        public void add(int key, long amount) {
+            cents[key] += amount;
+            counts[key]++;
+        }
+
+        @Override
+        public Accumulator merge(Accumulator other) {
+            DenseAccumulator dense = (DenseAccumulator) other;
+            for (int key = 0; key < cents.length; key++) {
+                cents[key] += dense.cents[key];
+                counts[key] += dense.counts[key];
+            }
+            return this;
+        }
+
+        @Override
+        public void forEach(GroupSink sink) {
+            for (int key = 0; key < cents.length; key++) {
+                if (counts[key] > 0) {
+                    sink.accept(key, cents[key], counts[key]);
+                }
+            }
+        }
+    }
+
+    // For many distinct keys, e.g. descriptions, where an array per task would dwarf the matches
+    private static final class SparseAccumulator implements Accumulator {
+
+        // key -> {cents, count}
+        private final Map<Integer, long[]> groups = new HashMap<>();
+
+        @Override
+        public void add(int key, long amount) {
+            long[] group = groups.computeIfAbsent(key, k -> new long[2]);
+            group[0] += amount;
+            group[1]++;
+        }
+
+        @Override
+        public Accumulator merge(Accumulator other) {
+            ((SparseAccumulator) other).groups.forEach((key, group) -> groups.merge(key, group, (mine, theirs) -> {
+                mine[0] += theirs[0];
+                mine[1] += theirs[1];
+                return mine;
+            }));
+            return this;
+        }
+
+        @Override
+        public void forEach(GroupSink sink) {
+            groups.forEach((key, group) -> sink.accept(key, group[0], group[1]));
+        }
+    }
+}
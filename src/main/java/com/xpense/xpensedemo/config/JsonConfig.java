@@ -0,0 +1,21 @@
+package com.xpense.xpensedemo.config;
+
+import com.xpense.xpensedemo.id.TransactionIdModule;
+import com.xpense.xpensedemo.id.TransactionIdSettings;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JsonConfig {
+
+    // Applies to every mapper built from Boot's builder, the CBOR and Smile converters included
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer transactionIdCustomizer(TransactionIdSettings idSettings) {
+        return builder -> {
+            if (idSettings.idsAsStrings()) {
+                builder.postConfigurer(mapper -> mapper.registerModule(new TransactionIdModule()));
+            }
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.xpense.xpensedemo.config;
+
+import com.xpense.xpensedemo.metrics.QueryCountAsyncInterceptor;
+import com.xpense.xpensedemo.metrics.QueryCounter;
+import com.xpense.xpensedemo.metrics.QueryCountingDataSource;
+import com.xpense.xpensedemo.service.CategoryService;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class MetricsConfig {
+
+    // Enables @Timed on the services
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    // Wraps only the application's DataSource; with a replica it routes to the pools, which must not count twice
+    @Bean
+    public static BeanPostProcessor queryCountingDataSource(ObjectProvider<QueryCounter> counter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && beanName.equals("dataSource")
+                        ? new QueryCountingDataSource(dataSource, counter.getObject())
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer queryCountAsyncSupport(QueryCounter counter) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.registerCallableInterceptors(new QueryCountAsyncInterceptor(counter));
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder categoryCacheMetrics(CategoryService categoryService) {
+        return registry -> {
+            FunctionCounter.builder("xpense.category.cache.requests", categoryService, s -> s.getCacheStats().hits())
+                    .description("Category cache lookups")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("xpense.category.cache.requests", categoryService, s -> s.getCacheStats().misses())
+                    .description("Category cache lookups")
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("xpense.category.cache.size", categoryService, s -> s.getCacheStats().size())
+                    .description("Categories currently cached")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.xpense.xpensedemo.config;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sends connections of read-only transactions to the replica pool and everything else, including
+ * work outside a transaction, to the primary. Must sit behind a {@link LazyConnectionDataSourceProxy}:
+ * the transaction manager opens its connection before it marks the transaction read-only, and the
+ * proxy defers the lookup to the first statement.
+ *
+ * <p>For a short window after this instance commits a write, reads go to the primary too, so a
+ * client does not read its own write back from a replica that has not replayed it yet, and no
+ * ETag or cache entry gets pinned to the rows from before the write.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final long readYourWritesNanos;
+    // System.nanoTime() until which reads stay on the primary
+    private volatile long primaryReadsUntil = System.nanoTime();
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration readYourWrites) {
+        this.readYourWritesNanos = readYourWrites.toNanos();
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Target determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return System.nanoTime() - primaryReadsUntil < 0 ? Target.PRIMARY : Target.REPLICA;
+        }
+        if (readYourWritesNanos > 0 && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    primaryReadsUntil = System.nanoTime() + readYourWritesNanos;
+                }
+            });
+        }
+        return Target.PRIMARY;
+    }
+}
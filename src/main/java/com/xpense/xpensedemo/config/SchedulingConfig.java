@@ -0,0 +1,10 @@
+package com.xpense.xpensedemo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// @Scheduled jobs run on Boot's taskScheduler, virtual threads included when enabled
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,44 @@
+package com.xpense.xpensedemo.controller;
+
+import com.xpense.xpensedemo.dto.AnalyticsBucket;
+import com.xpense.xpensedemo.dto.DateRange;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.service.AnalyticsService;
+import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/analytics")
+@AllArgsConstructor
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    @GetMapping("/outputs")
+    public ResponseEntity<List<AnalyticsBucket>> aggregateOutputs(
+            @RequestParam(defaultValue = "category") String groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(analyticsService.aggregate(TransactionKind.OUTPUT, groupBy, DateRange.of(from, to), category, limit));
+    }
+
+    @GetMapping("/incomes")
+    public ResponseEntity<List<AnalyticsBucket>> aggregateIncomes(
+            @RequestParam(defaultValue = "month") String groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(analyticsService.aggregate(TransactionKind.INCOME, groupBy, DateRange.of(from, to), null, limit));
+    }
+}
@@ -0,0 +1,38 @@
+package com.xpense.xpensedemo.controller;
+
+import com.xpense.xpensedemo.dto.IngestionReceipt;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+import java.util.Arrays;
+
+final class AsyncResponses {
+
+    static final String PREFER = "Prefer";
+    static final String PREFERENCE_APPLIED = "Preference-Applied";
+    static final String RESPOND_ASYNC = "respond-async";
+
+    private AsyncResponses() {
+    }
+
+    /**
+     * Whether the client asked for {@code Prefer: respond-async} (RFC 7240), among any other
+     * preferences in the header.
+     */
+    static boolean respondAsync(String prefer) {
+        return prefer != null && Arrays.stream(prefer.split(","))
+                .map(preference -> preference.split(";", 2)[0].trim())
+                .anyMatch(RESPOND_ASYNC::equalsIgnoreCase);
+    }
+
+    /**
+     * Answers {@code 202 Accepted} with the receipt, pointing {@code Location} at its status.
+     */
+    static ResponseEntity<IngestionReceipt> accepted(IngestionReceipt receipt) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/ingestion/" + receipt.trackingId()))
+                .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+                .body(receipt);
+    }
+}
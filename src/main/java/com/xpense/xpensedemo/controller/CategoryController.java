@@ -2,10 +2,13 @@ package com.xpense.xpensedemo.controller;
 
 import com.xpense.xpensedemo.dto.CategoryDTO;
 import com.xpense.xpensedemo.service.CategoryService;
+import com.xpense.xpensedemo.service.ResourceVersions;
+import com.xpense.xpensedemo.service.ResourceVersions.Resource;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/categories")
@@ -13,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final ResourceVersions resourceVersions;
 
     @PostMapping("/create")
     public ResponseEntity<String> createCategory(@Valid @RequestBody CategoryDTO categoryDTO) {
@@ -21,8 +25,9 @@ public class CategoryController {
     }
 
     @GetMapping
-    public ResponseEntity<?> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<?> getAllCategories(WebRequest request) {
+        return ConditionalResponses.ifNoneMatch(request, resourceVersions.version(Resource.CATEGORIES),
+                categoryService::getAllCategories);
     }
 
     @GetMapping("/{id}")
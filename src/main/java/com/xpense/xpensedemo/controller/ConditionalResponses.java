@@ -0,0 +1,68 @@
+package com.xpense.xpensedemo.controller;
+
+import com.xpense.xpensedemo.exception.InvalidVersionException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    /**
+     * Answers {@code 304 Not Modified} when the request's {@code If-None-Match} matches the ETag of
+     * {@code version}, without calling {@code body}; otherwise returns the body with that ETag.
+     * Clients may store the response but must revalidate it on every use.
+     *
+     * <p>The ETag is weak because Tomcat only compresses responses without a strong one, and the
+     * same version goes out both gzipped and plain. It includes the {@code Accept} header, so JSON,
+     * CBOR and Smile responses of one version never share a validator.
+     */
+    static <T> ResponseEntity<T> ifNoneMatch(WebRequest request, String version, Supplier<T> body) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        String etag = "W/\"" + version + "-" + Integer.toHexString(accept == null ? 0 : accept.hashCode()) + "\"";
+        if (request.checkNotModified(etag)) {
+            // Status and ETag are already set on the response
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .cacheControl(CacheControl.noCache())
+                .body(body.get());
+    }
+
+    /**
+     * Reads the version an update is based on from {@code If-Match}, which holds the ETag returned
+     * by the previous update or the {@code version} field of a read. Null for a missing header or
+     * {@code *}, which update whatever version is current.
+     */
+    static Long ifMatchVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String version = ifMatch.trim();
+        if (version.startsWith("W/")) {
+            version = version.substring(2);
+        }
+        if (version.length() >= 2 && version.startsWith("\"") && version.endsWith("\"")) {
+            version = version.substring(1, version.length() - 1);
+        }
+        try {
+            return Long.parseLong(version);
+        } catch (NumberFormatException e) {
+            throw new InvalidVersionException(ifMatch);
+        }
+    }
+
+    /**
+     * Answers an update with its message and the new version as ETag, for the next {@code If-Match}.
+     */
+    static ResponseEntity<String> updated(long version, String message) {
+        return ResponseEntity.ok().eTag(Long.toString(version)).body(message);
+    }
+}
@@ -0,0 +1,24 @@
+package com.xpense.xpensedemo.controller;
+
+import com.xpense.xpensedemo.dto.IdempotentResponse;
+import org.springframework.http.ResponseEntity;
+
+final class IdempotentResponses {
+
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private IdempotentResponses() {
+    }
+
+    /**
+     * Answers with the stored body; a replay is flagged so clients can tell it from a first run.
+     */
+    static ResponseEntity<String> ok(IdempotentResponse response) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (response.replayed()) {
+            builder.header(IDEMPOTENT_REPLAYED, "true");
+        }
+        return builder.body(response.body());
+    }
+}
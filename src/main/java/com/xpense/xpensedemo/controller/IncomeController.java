@@ -1,40 +1,145 @@
 package com.xpense.xpensedemo.controller;
 
+import com.xpense.xpensedemo.dto.BulkResult;
+import com.xpense.xpensedemo.dto.DateRange;
+import com.xpense.xpensedemo.dto.ImportReport;
 import com.xpense.xpensedemo.dto.IncomeDTO;
+import com.xpense.xpensedemo.dto.IncomePatch;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.exception.InvalidBulkFilterException;
+import com.xpense.xpensedemo.export.ExportFormat;
+import com.xpense.xpensedemo.ingestion.IngestionQueue;
+import com.xpense.xpensedemo.service.IdempotencyService;
 import com.xpense.xpensedemo.service.IncomeService;
+import com.xpense.xpensedemo.service.ResourceVersions;
+import com.xpense.xpensedemo.service.ResourceVersions.Resource;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/incomes")
 @AllArgsConstructor
 public class IncomeController {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final String INCOME_CREATED = "Income created successfully";
 
     private final IncomeService incomeService;
+    private final ResourceVersions resourceVersions;
+    private final IdempotencyService idempotencyService;
+    // Present when xpense.ingestion.async.enabled is set
+    private final Optional<IngestionQueue> ingestionQueue;
 
     @PostMapping("/create")
-    public ResponseEntity<String> createIncome(@Valid @RequestBody IncomeDTO income) {
+    public ResponseEntity<?> createIncome(@Valid @RequestBody IncomeDTO income,
+                                          @RequestHeader(value = AsyncResponses.PREFER, required = false) String prefer,
+                                          @RequestHeader(value = IdempotentResponses.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        // The key has to commit together with the row, so keyed requests are never queued
+        if (idempotencyKey != null) {
+            return IdempotentResponses.ok(idempotencyService.execute(TransactionKind.INCOME, idempotencyKey, income, () -> {
+                incomeService.createIncome(income);
+                return INCOME_CREATED;
+            }));
+        }
+        if (AsyncResponses.respondAsync(prefer) && ingestionQueue.isPresent()) {
+            return AsyncResponses.accepted(ingestionQueue.get().enqueueIncome(income));
+        }
         incomeService.createIncome(income);
-        return ResponseEntity.ok("Income created successfully");
+        return ResponseEntity.ok(INCOME_CREATED);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<String> createIncomes(@RequestBody @Size(max = MAX_BATCH_SIZE) List<@Valid IncomeDTO> incomes) {
+        int created = incomeService.createIncomes(incomes);
+        return ResponseEntity.ok(created + " incomes created successfully");
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportReport> importIncomes(@RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream csv = file.getInputStream()) {
+            return ResponseEntity.ok(incomeService.importIncomes(csv));
+        }
     }
 
     @GetMapping
-    public ResponseEntity<?> getAllIncomes() {
-        return ResponseEntity.ok(incomeService.getAllIncomes());
+    public ResponseEntity<?> getAllIncomes(@RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer size,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+                                           WebRequest request) {
+        DateRange range = DateRange.of(from, to);
+        return ConditionalResponses.ifNoneMatch(request, resourceVersions.version(Resource.INCOMES),
+                () -> incomeService.getIncomePage(cursor, size, range));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateIncome(@PathVariable Long id, @Valid @RequestBody IncomeDTO income) {
-        incomeService.updateIncome(id, income);
-        return ResponseEntity.ok("Income updated successfully");
+    public ResponseEntity<?> updateIncome(@PathVariable Long id, @Valid @RequestBody IncomeDTO income,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        long version = incomeService.updateIncome(id, income, ConditionalResponses.ifMatchVersion(ifMatch)).version();
+        return ConditionalResponses.updated(version, "Income updated successfully");
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/merge-patch+json"})
+    public ResponseEntity<?> patchIncome(@PathVariable Long id, @Valid @RequestBody IncomePatch patch,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        long version = incomeService.patchIncome(id, patch, ConditionalResponses.ifMatchVersion(ifMatch)).version();
+        return ConditionalResponses.updated(version, "Income updated successfully");
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchIncomes(@RequestParam String q,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(incomeService.searchIncomes(q, cursor, size));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportIncomes(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        StreamingResponseBody body = out -> incomeService.exportIncomes(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=incomes." + exportFormat.getExtension())
+                .body(body);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<?> getIncomeById(@PathVariable Long id) {
-        return ResponseEntity.ok(incomeService.getIncomeById(id));
+        return ResponseEntity.ok(incomeService.getIncomeView(id));
+    }
+
+    // Either an id list or a date filter; a request with neither would delete every income
+    @DeleteMapping
+    public ResponseEntity<BulkResult> deleteIncomes(@RequestParam(required = false) @Size(max = MAX_BATCH_SIZE) List<Long> ids,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to) {
+        boolean filtered = from != null || to != null;
+        if (ids != null && filtered) {
+            throw new InvalidBulkFilterException("Pass either ids or from and to, not both");
+        }
+        if (ids != null) {
+            return ResponseEntity.ok(new BulkResult(incomeService.deleteIncomes(ids)));
+        }
+        if (!filtered) {
+            throw new InvalidBulkFilterException("Pass ids, or at least one of from and to");
+        }
+        return ResponseEntity.ok(new BulkResult(incomeService.deleteIncomes(DateRange.of(from, to))));
     }
 
     @DeleteMapping("/{id}")
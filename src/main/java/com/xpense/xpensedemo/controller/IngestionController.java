@@ -0,0 +1,26 @@
+package com.xpense.xpensedemo.controller;
+
+import com.xpense.xpensedemo.dto.IngestionReceipt;
+import com.xpense.xpensedemo.ingestion.IngestionQueue;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/ingestion")
+@AllArgsConstructor
+public class IngestionController {
+
+    // Present when xpense.ingestion.async.enabled is set
+    private final Optional<IngestionQueue> ingestionQueue;
+
+    @GetMapping("/{trackingId}")
+    public ResponseEntity<IngestionReceipt> getStatus(@PathVariable String trackingId) {
+        return ResponseEntity.of(ingestionQueue.flatMap(queue -> queue.status(trackingId)));
+    }
+}
@@ -1,33 +1,160 @@
 package com.xpense.xpensedemo.controller;
 
+import com.xpense.xpensedemo.dto.BulkResult;
+import com.xpense.xpensedemo.dto.DateRange;
+import com.xpense.xpensedemo.dto.ImportReport;
 import com.xpense.xpensedemo.dto.OutputDTO;
+import com.xpense.xpensedemo.dto.OutputPatch;
+import com.xpense.xpensedemo.dto.RecategorizeRequest;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.exception.InvalidBulkFilterException;
+import com.xpense.xpensedemo.export.ExportFormat;
+import com.xpense.xpensedemo.ingestion.IngestionQueue;
+import com.xpense.xpensedemo.service.IdempotencyService;
 import com.xpense.xpensedemo.service.OutputService;
+import com.xpense.xpensedemo.service.ResourceVersions;
+import com.xpense.xpensedemo.service.ResourceVersions.Resource;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/outputs")
 public class OutputController {
 
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final String OUTPUT_CREATED = "Output created successfully";
+
     @Autowired
     OutputService outputService;
 
+    @Autowired
+    ResourceVersions resourceVersions;
+
+    @Autowired
+    IdempotencyService idempotencyService;
+
+    // Present when xpense.ingestion.async.enabled is set
+    @Autowired
+    Optional<IngestionQueue> ingestionQueue;
+
     @PostMapping("/create")
-    public ResponseEntity<String> createOutput(@Valid @RequestBody OutputDTO output) {
+    public ResponseEntity<?> createOutput(@Valid @RequestBody OutputDTO output,
+                                          @RequestHeader(value = AsyncResponses.PREFER, required = false) String prefer,
+                                          @RequestHeader(value = IdempotentResponses.IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        // The key has to commit together with the row, so keyed requests are never queued
+        if (idempotencyKey != null) {
+            return IdempotentResponses.ok(idempotencyService.execute(TransactionKind.OUTPUT, idempotencyKey, output, () -> {
+                outputService.createOutput(output);
+                return OUTPUT_CREATED;
+            }));
+        }
+        if (AsyncResponses.respondAsync(prefer) && ingestionQueue.isPresent()) {
+            return AsyncResponses.accepted(ingestionQueue.get().enqueueOutput(output));
+        }
         outputService.createOutput(output);
-        return ResponseEntity.ok("Output created successfully");
+        return ResponseEntity.ok(OUTPUT_CREATED);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<String> createOutputs(@RequestBody @Size(max = MAX_BATCH_SIZE) List<@Valid OutputDTO> outputs) {
+        int created = outputService.createOutputs(outputs);
+        return ResponseEntity.ok(created + " outputs created successfully");
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportReport> importOutputs(@RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream csv = file.getInputStream()) {
+            return ResponseEntity.ok(outputService.importOutputs(csv));
+        }
     }
 
     @GetMapping
-    public ResponseEntity<?> getAllOutputs() {
-        return ResponseEntity.ok(outputService.getAllOutputs());
+    public ResponseEntity<?> getAllOutputs(@RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer size,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+                                           @RequestParam(required = false) String category,
+                                           WebRequest request) {
+        DateRange range = DateRange.of(from, to);
+        // Listed outputs embed their category's name
+        return ConditionalResponses.ifNoneMatch(request, resourceVersions.version(Resource.OUTPUTS, Resource.CATEGORIES),
+                () -> outputService.getOutputPage(cursor, size, range, category));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchOutputs(@RequestParam String q,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(outputService.searchOutputs(q, cursor, size));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOutputs(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        StreamingResponseBody body = out -> outputService.exportOutputs(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=outputs." + exportFormat.getExtension())
+                .body(body);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<?> getOutputById(@PathVariable Long id) {
-        return ResponseEntity.ok(outputService.getOutputById(id));
+        return ResponseEntity.ok(outputService.getOutputView(id));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<String> updateOutput(@PathVariable Long id, @Valid @RequestBody OutputDTO output,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        long version = outputService.updateOutput(id, output, ConditionalResponses.ifMatchVersion(ifMatch)).version();
+        return ConditionalResponses.updated(version, "Output updated successfully");
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/merge-patch+json"})
+    public ResponseEntity<String> patchOutput(@PathVariable Long id, @Valid @RequestBody OutputPatch patch,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        long version = outputService.patchOutput(id, patch, ConditionalResponses.ifMatchVersion(ifMatch)).version();
+        return ConditionalResponses.updated(version, "Output updated successfully");
+    }
+
+    @PostMapping("/recategorize")
+    public ResponseEntity<BulkResult> recategorizeOutputs(@Valid @RequestBody RecategorizeRequest request) {
+        return ResponseEntity.ok(new BulkResult(outputService.recategorizeOutputs(request.from(), request.to())));
+    }
+
+    // Either an id list or a filter; a request with neither would delete every output
+    @DeleteMapping
+    public ResponseEntity<BulkResult> deleteOutputs(@RequestParam(required = false) @Size(max = MAX_BATCH_SIZE) List<Long> ids,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+                                                    @RequestParam(required = false) String category) {
+        boolean filtered = from != null || to != null || category != null;
+        if (ids != null && filtered) {
+            throw new InvalidBulkFilterException("Pass either ids or from, to and category, not both");
+        }
+        if (ids != null) {
+            return ResponseEntity.ok(new BulkResult(outputService.deleteOutputs(ids)));
+        }
+        if (!filtered) {
+            throw new InvalidBulkFilterException("Pass ids, or at least one of from, to and category");
+        }
+        return ResponseEntity.ok(new BulkResult(outputService.deleteOutputs(DateRange.of(from, to), category)));
     }
 
     @DeleteMapping("/{id}")
@@ -0,0 +1,36 @@
+package com.xpense.xpensedemo.controller;
+
+import com.xpense.xpensedemo.dto.MonthlySummaryDTO;
+import com.xpense.xpensedemo.service.ResourceVersions;
+import com.xpense.xpensedemo.service.ResourceVersions.Resource;
+import com.xpense.xpensedemo.service.SummaryService;
+import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@RestController
+@RequestMapping("/summary")
+@AllArgsConstructor
+public class SummaryController {
+
+    private final SummaryService summaryService;
+    private final ResourceVersions resourceVersions;
+
+    @GetMapping("/monthly")
+    public ResponseEntity<List<MonthlySummaryDTO>> getMonthlySummary(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            WebRequest request) {
+        // Rollups change with every transaction write, and category names appear in the breakdown
+        String version = resourceVersions.version(Resource.INCOMES, Resource.OUTPUTS, Resource.CATEGORIES);
+        return ConditionalResponses.ifNoneMatch(request, version, () -> summaryService.getMonthlySummary(from, to));
+    }
+}
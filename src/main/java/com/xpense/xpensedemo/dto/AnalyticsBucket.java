@@ -0,0 +1,12 @@
+package com.xpense.xpensedemo.dto;
+
+/**
+ * One group of an analytics query. The key is the category name, weekday, {@code yyyy-MM} month
+ * or description, and {@code null} for outputs without a category.
+ */
+public record AnalyticsBucket(
+    String key,
+    double total,
+    long count
+) {
+}
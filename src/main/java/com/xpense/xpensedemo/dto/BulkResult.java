@@ -0,0 +1,7 @@
+package com.xpense.xpensedemo.dto;
+
+/**
+ * @param affected number of transactions deleted or changed
+ */
+public record BulkResult(int affected) {
+}
@@ -0,0 +1,9 @@
+package com.xpense.xpensedemo.dto;
+
+public record CategoryTotalDTO(
+    Long categoryId,
+    String categoryName,
+    double total,
+    long count
+) {
+}
@@ -0,0 +1,15 @@
+package com.xpense.xpensedemo.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Sum and count of the transactions of one day, and of one category for outputs.
+ *
+ * @param categoryId null for incomes
+ */
+public record DailyTotal(LocalDate date, Long categoryId, double amount, long count) {
+
+    public DailyTotal(LocalDate date, double amount, long count) {
+        this(date, null, amount, count);
+    }
+}
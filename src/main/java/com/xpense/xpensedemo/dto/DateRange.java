@@ -0,0 +1,30 @@
+package com.xpense.xpensedemo.dto;
+
+import com.xpense.xpensedemo.exception.InvalidDateRangeException;
+
+import java.time.LocalDate;
+
+/**
+ * Inclusive date range. Open ends are replaced by concrete bounds so repository queries always
+ * compare against real values, which keeps them index-friendly on every database.
+ */
+public record DateRange(
+    LocalDate from,
+    LocalDate to
+) {
+
+    public static final LocalDate MIN_DATE = LocalDate.of(1, 1, 1);
+    public static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    public static DateRange of(LocalDate from, LocalDate to) {
+        DateRange range = new DateRange(from == null ? MIN_DATE : from, to == null ? MAX_DATE : to);
+        if (range.from().isAfter(range.to())) {
+            throw new InvalidDateRangeException(from, to);
+        }
+        return range;
+    }
+
+    public static DateRange all() {
+        return new DateRange(MIN_DATE, MAX_DATE);
+    }
+}
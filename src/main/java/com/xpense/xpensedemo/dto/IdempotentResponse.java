@@ -0,0 +1,7 @@
+package com.xpense.xpensedemo.dto;
+
+/**
+ * @param replayed whether the body was stored by an earlier request with the same key
+ */
+public record IdempotentResponse(String body, boolean replayed) {
+}
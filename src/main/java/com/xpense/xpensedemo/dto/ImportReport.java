@@ -0,0 +1,21 @@
+package com.xpense.xpensedemo.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a CSV import. Only the first {@code MAX_REJECTED_LINES} rejected lines are listed;
+ * {@code rejected} counts all of them.
+ */
+public record ImportReport(
+    long imported,
+    long rejected,
+    List<RejectedLine> rejectedLines,
+    long elapsedMillis,
+    double rowsPerSecond
+) {
+
+    public static final int MAX_REJECTED_LINES = 100;
+
+    public record RejectedLine(long line, String reason) {
+    }
+}
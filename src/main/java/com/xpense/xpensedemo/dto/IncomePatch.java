@@ -0,0 +1,28 @@
+package com.xpense.xpensedemo.dto;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Partial update of an income; fields left out or null keep their current value.
+ */
+public record IncomePatch(
+    @Pattern(regexp = "(?s).*\\S.*", message = "Description cannot be blank")
+    String description,
+
+    @Positive(message = "Income amount must be positive")
+    Double amount,
+
+    @Pattern(regexp = "(?s).*\\S.*", message = "Date cannot be blank")
+    String date
+) {
+
+    public IncomeDTO applyTo(IncomeView current) {
+        return new IncomeDTO(
+                description != null ? description : current.description(),
+                null,
+                amount != null ? amount : current.amount(),
+                date != null ? date : current.date().toString()
+        );
+    }
+}
@@ -0,0 +1,18 @@
+package com.xpense.xpensedemo.dto;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * Read model of an income, built by constructor expressions in {@code IncomeRepository} so list and
+ * detail reads never enter the persistence context. Serializes like the {@code Income} entity.
+ */
+public record IncomeView(
+    Long id,
+    double amount,
+    String description,
+    LocalDate date,
+    Timestamp createdAt,
+    long version
+) {
+}
@@ -0,0 +1,11 @@
+package com.xpense.xpensedemo.dto;
+
+import com.xpense.xpensedemo.enums.IngestionStatus;
+
+/**
+ * State of a create request accepted by the asynchronous ingestion queue.
+ *
+ * @param error why the transaction could not be stored, only for {@link IngestionStatus#FAILED}
+ */
+public record IngestionReceipt(String trackingId, IngestionStatus status, String error) {
+}
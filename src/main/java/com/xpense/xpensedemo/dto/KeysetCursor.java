@@ -0,0 +1,56 @@
+package com.xpense.xpensedemo.dto;
+
+import com.xpense.xpensedemo.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a page in {@code (date, id)} order, exchanged with clients as an
+ * opaque URL-safe token.
+ */
+public record KeysetCursor(
+    LocalDate date,
+    Long id
+) {
+
+    // Id below every real id, used to start a page at the first row of a date
+    public static final long BEFORE_FIRST_ID = -1L;
+
+    /**
+     * Where the next page starts within {@code range}: right after the cursor, or at the start of
+     * the range when there is no cursor or the cursor lies before the range.
+     */
+    public static KeysetCursor startOf(String token, DateRange range) {
+        if (token != null && !token.isBlank()) {
+            KeysetCursor after = decode(token);
+            if (!after.date().isBefore(range.from())) {
+                return after;
+            }
+        }
+        return new KeysetCursor(range.from(), BEFORE_FIRST_ID);
+    }
+
+    public String encode() {
+        String raw = date + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            if (separator < 0) {
+                throw new InvalidCursorException(token);
+            }
+            return new KeysetCursor(
+                    LocalDate.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.xpense.xpensedemo.dto;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public record MonthlySummaryDTO(
+    YearMonth month,
+    double income,
+    long incomeCount,
+    double expense,
+    long expenseCount,
+    double net,
+    List<CategoryTotalDTO> expenseByCategory
+) {
+}
@@ -16,7 +16,6 @@ public record OutputDTO(
     String category,
     
     @NotNull(message = "Amount cannot be null")
-    @NotBlank(message = "Amount cannot be blank")
     @Positive(message = "Output amount must be positive")
     double amount,
     
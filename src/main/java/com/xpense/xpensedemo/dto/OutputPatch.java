@@ -0,0 +1,31 @@
+package com.xpense.xpensedemo.dto;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Partial update of an output; fields left out or null keep their current value.
+ */
+public record OutputPatch(
+    @Pattern(regexp = "(?s).*\\S.*", message = "Description cannot be blank")
+    String description,
+
+    @Pattern(regexp = "(?s).*\\S.*", message = "Category cannot be blank")
+    String category,
+
+    @Positive(message = "Output amount must be positive")
+    Double amount,
+
+    @Pattern(regexp = "(?s).*\\S.*", message = "Date cannot be blank")
+    String date
+) {
+
+    public OutputDTO applyTo(OutputView current) {
+        return new OutputDTO(
+                description != null ? description : current.description(),
+                category != null ? category : current.category() == null ? null : current.category().name(),
+                amount != null ? amount : current.amount(),
+                date != null ? date : current.date().toString()
+        );
+    }
+}
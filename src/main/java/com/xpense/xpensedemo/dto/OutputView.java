@@ -0,0 +1,29 @@
+package com.xpense.xpensedemo.dto;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * Read model of an output, built by constructor expressions in {@code OutputRepository} so list and
+ * detail reads never enter the persistence context. Serializes like the {@code Output} entity.
+ */
+public record OutputView(
+    Long id,
+    double amount,
+    String description,
+    LocalDate date,
+    Timestamp createdAt,
+    long version,
+    CategoryRef category
+) {
+
+    public record CategoryRef(Long id, String name) {
+    }
+
+    // JPQL constructor expressions cannot nest, so the query passes the category flattened
+    public OutputView(Long id, double amount, String description, LocalDate date, Timestamp createdAt,
+                      long version, Long categoryId, String categoryName) {
+        this(id, amount, description, date, createdAt, version,
+                categoryId == null ? null : new CategoryRef(categoryId, categoryName));
+    }
+}
@@ -0,0 +1,35 @@
+package com.xpense.xpensedemo.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is {@code null} on the last page.
+ */
+public record PageResponse<T>(
+    List<T> items,
+    String nextCursor
+) {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    public static int clampSize(Integer size) {
+        if (size == null || size < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Builds a page from a slice fetched with {@code limit + 1} rows: the extra row only signals
+     * that another page exists and is not returned.
+     */
+    public static <T> PageResponse<T> fromSlice(List<T> rows, int limit, Function<T, KeysetCursor> cursorOf) {
+        if (rows.size() <= limit) {
+            return new PageResponse<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new PageResponse<>(items, cursorOf.apply(items.get(limit - 1)).encode());
+    }
+}
@@ -0,0 +1,15 @@
+package com.xpense.xpensedemo.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Moves every output of category {@code from} to category {@code to}, both given by name.
+ */
+public record RecategorizeRequest(
+    @NotBlank(message = "Source category cannot be blank")
+    String from,
+
+    @NotBlank(message = "Target category cannot be blank")
+    String to
+) {
+}
@@ -0,0 +1,10 @@
+package com.xpense.xpensedemo.dto;
+
+/**
+ * Id and version of a transaction row, as read when locking it for a bulk change.
+ */
+public record RowVersion(
+    Long id,
+    long version
+) {
+}
@@ -0,0 +1,62 @@
+package com.xpense.xpensedemo.dto;
+
+import com.xpense.xpensedemo.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Position of the last row of a ranked search page in {@code (rank, date desc, id desc)} order,
+ * exchanged with clients as an opaque URL-safe token. Ranks tie across many rows, so the date and
+ * id break the tie, the same way {@link KeysetCursor} does for the listings.
+ */
+public record SearchCursor(
+    int rank,
+    LocalDate date,
+    long id
+) {
+
+    // Ranks start at 0, so the first page starts after every row; date and id are then never compared
+    public static final SearchCursor START = new SearchCursor(-1, LocalDate.of(9999, 12, 31), Long.MAX_VALUE);
+
+    public static SearchCursor startOf(String token) {
+        return token == null || token.isBlank() ? START : decode(token);
+    }
+
+    public String encode() {
+        String raw = rank + ":" + date + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", -1);
+            if (parts.length != 3) {
+                throw new InvalidCursorException(token);
+            }
+            int rank = Integer.parseInt(parts[0]);
+            if (rank < 0 || rank > SearchTerm.ANYWHERE) {
+                throw new InvalidCursorException(token);
+            }
+            return new SearchCursor(rank, LocalDate.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+
+    /**
+     * Builds a page from rows fetched with {@code limit + 1}, like {@link PageResponse#fromSlice}.
+     */
+    public static <T> PageResponse<T> page(List<T> rows, int limit, Function<T, SearchCursor> cursorOf) {
+        if (rows.size() <= limit) {
+            return new PageResponse<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new PageResponse<>(items, cursorOf.apply(items.get(limit - 1)).encode());
+    }
+}
@@ -0,0 +1,56 @@
+package com.xpense.xpensedemo.dto;
+
+import com.xpense.xpensedemo.exception.InvalidSearchQueryException;
+
+import java.util.Locale;
+
+/**
+ * A description search term as the repository queries consume it: lower-cased, with LIKE
+ * wildcards escaped by {@code \}, and expanded into the patterns used for matching and ranking.
+ *
+ * @param exact     the term itself, ranking exact matches first
+ * @param prefix    matches descriptions starting with the term
+ * @param wordStart matches the term at the start of a later word
+ * @param contains  matches the term anywhere; the filter every result satisfies
+ */
+public record SearchTerm(
+    String exact,
+    String prefix,
+    String wordStart,
+    String contains
+) {
+
+    // Trigrams need three characters; anything shorter cannot narrow the index lookup
+    public static final int MIN_LENGTH = 3;
+    public static final int MAX_LENGTH = 100;
+
+    // Ranks as the repository search queries compute them, best first
+    public static final int EXACT = 0;
+    public static final int PREFIX = 1;
+    public static final int WORD_START = 2;
+    public static final int ANYWHERE = 3;
+
+    public static SearchTerm of(String query) {
+        String term = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        if (term.length() < MIN_LENGTH || term.length() > MAX_LENGTH) {
+            throw new InvalidSearchQueryException(query, MIN_LENGTH, MAX_LENGTH);
+        }
+        String escaped = term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return new SearchTerm(term, escaped + "%", "% " + escaped + "%", "%" + escaped + "%");
+    }
+
+    /**
+     * Rank of a matching description, computed like the {@code case} in the search queries so a
+     * page's last row can be turned into a {@link SearchCursor}.
+     */
+    public int rank(String description) {
+        String lower = description.toLowerCase(Locale.ROOT);
+        if (lower.equals(exact)) {
+            return EXACT;
+        }
+        if (lower.startsWith(exact)) {
+            return PREFIX;
+        }
+        return lower.contains(" " + exact) ? WORD_START : ANYWHERE;
+    }
+}
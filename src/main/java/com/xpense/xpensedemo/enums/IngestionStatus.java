@@ -0,0 +1,7 @@
+package com.xpense.xpensedemo.enums;
+
+public enum IngestionStatus {
+    QUEUED,
+    STORED,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package com.xpense.xpensedemo.enums;
+
+public enum TransactionKind {
+    INCOME,
+    OUTPUT
+}
@@ -0,0 +1,12 @@
+package com.xpense.xpensedemo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConcurrentChangeException extends RuntimeException {
+
+    public ConcurrentChangeException(String resource) {
+        super("Other requests changed the matching " + resource + " meanwhile; nothing was changed, retry");
+    }
+}
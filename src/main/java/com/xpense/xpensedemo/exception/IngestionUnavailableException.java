@@ -0,0 +1,16 @@
+package com.xpense.xpensedemo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class IngestionUnavailableException extends RuntimeException {
+
+    public IngestionUnavailableException(String message) {
+        super(message);
+    }
+
+    public IngestionUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,16 @@
+package com.xpense.xpensedemo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidDateRangeException extends RuntimeException {
+
+    public InvalidDateRangeException(Object from, Object to) {
+        super("Invalid date range: " + from + " is after " + to);
+    }
+
+    public InvalidDateRangeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.xpense.xpensedemo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSearchQueryException extends RuntimeException {
+
+    public InvalidSearchQueryException(String query, int minLength, int maxLength) {
+        super("Search query must be " + minLength + " to " + maxLength + " characters: " + query);
+    }
+}
@@ -0,0 +1,12 @@
+package com.xpense.xpensedemo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidVersionException extends RuntimeException {
+
+    public InvalidVersionException(String ifMatch) {
+        super("If-Match must hold a version returned by this API: " + ifMatch);
+    }
+}
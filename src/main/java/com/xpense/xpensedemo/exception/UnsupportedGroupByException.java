@@ -0,0 +1,12 @@
+package com.xpense.xpensedemo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnsupportedGroupByException extends RuntimeException {
+
+    public UnsupportedGroupByException(String groupBy) {
+        super("Unsupported grouping: " + groupBy);
+    }
+}
@@ -0,0 +1,17 @@
+package com.xpense.xpensedemo.export;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ExportRow(
+    Long id,
+    LocalDate date,
+    double amount,
+    String description,
+    String category,
+    LocalDateTime createdAt
+) {
+}
@@ -0,0 +1,111 @@
+package com.xpense.xpensedemo.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.xpense.xpensedemo.id.TransactionIdModule;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes export rows one at a time to a response stream, so the export never holds more than
+ * the write buffer in memory.
+ */
+public class TransactionExportWriter implements Flushable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ObjectWriter ROW_WRITER = rowWriter(JsonMapper.builder());
+
+    private static final ObjectWriter STRING_ID_ROW_WRITER =
+            rowWriter(JsonMapper.builder().addModule(new TransactionIdModule()));
+
+    private final ExportFormat format;
+    private final boolean includeCategory;
+    private final Writer writer;
+    // One generator per export, so NDJSON rows share its buffer instead of each getting a fresh one
+    private final JsonGenerator generator;
+    private final ObjectWriter rowWriter;
+
+    // idsAsStrings writes NDJSON ids as strings, as the API does with snowflake ids; CSV has no types
+    public TransactionExportWriter(ExportFormat format, boolean includeCategory, boolean idsAsStrings,
+                                   OutputStream out) throws IOException {
+        this.format = format;
+        this.includeCategory = includeCategory;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.rowWriter = idsAsStrings ? STRING_ID_ROW_WRITER : ROW_WRITER;
+        this.generator = format == ExportFormat.NDJSON
+                ? rowWriter.createGenerator(writer).setRootValueSeparator(null)
+                : null;
+    }
+
+    private static ObjectWriter rowWriter(JsonMapper.Builder builder) {
+        return builder
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                // Rows must not reach the stream one by one: under gzip every flush ends a deflate block
+                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+                .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .build()
+                .writerFor(ExportRow.class);
+    }
+
+    public void writeHeader() throws IOException {
+        if (format == ExportFormat.CSV) {
+            writer.write(includeCategory
+                    ? "id,date,amount,description,category,created_at\n"
+                    : "id,date,amount,description,created_at\n");
+        }
+    }
+
+    public void write(ExportRow row) throws IOException {
+        if (generator != null) {
+            rowWriter.writeValue(generator, row);
+            generator.writeRaw('\n');
+            return;
+        }
+        writer.write(String.valueOf(row.id()));
+        writer.write(',');
+        writer.write(String.valueOf(row.date()));
+        writer.write(',');
+        writer.write(String.valueOf(row.amount()));
+        writer.write(',');
+        writeCsvField(row.description());
+        if (includeCategory) {
+            writer.write(',');
+            writeCsvField(row.category());
+        }
+        writer.write(',');
+        writer.write(row.createdAt() == null ? "" : row.createdAt().toString());
+        writer.write('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (generator != null) {
+            generator.flush();
+        }
+        writer.flush();
+    }
+
+    private void writeCsvField(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
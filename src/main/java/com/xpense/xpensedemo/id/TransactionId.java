@@ -0,0 +1,17 @@
+package com.xpense.xpensedemo.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Ids from the generator chosen with {@code xpense.ids.generator}, see {@link TransactionIdGenerator}.
+ */
+@IdGeneratorType(TransactionIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TransactionId {
+}
@@ -0,0 +1,71 @@
+package com.xpense.xpensedemo.id;
+
+import org.hibernate.boot.model.relational.Database;
+import org.hibernate.boot.model.relational.SqlStringGenerationContext;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Assigns transaction ids before the insert, so Hibernate can batch inserts either way. The
+ * default takes them from the entity's pooled sequence, named after its table, as plain
+ * {@code @GeneratedValue(strategy = SEQUENCE)} did. {@code snowflake} takes them from
+ * {@link SnowflakeIds}, with no database involved.
+ *
+ * <p>Hibernate creates generators itself; the settings reach it as Hibernate properties, see
+ * {@link TransactionIdSettings}.
+ */
+public class TransactionIdGenerator implements IdentifierGenerator {
+
+    static final String STRATEGY = "xpense.ids.generator";
+    static final String NODE_ID = "xpense.ids.node-id";
+    // Must match the sequences' INCREMENT BY and TransactionImporter's block size
+    static final int SEQUENCE_BLOCK_SIZE = 50;
+
+    private final SnowflakeIds snowflake;
+    private final SequenceStyleGenerator sequence;
+
+    public TransactionIdGenerator(TransactionId annotation, Member member, CustomIdGeneratorCreationContext context) {
+        Map<String, Object> settings = context.getServiceRegistry().getService(ConfigurationService.class).getSettings();
+        TransactionIdStrategy strategy = TransactionIdStrategy.from(String.valueOf(settings.getOrDefault(STRATEGY, "sequence")));
+        if (strategy == TransactionIdStrategy.SNOWFLAKE) {
+            this.snowflake = SnowflakeIds.forNode(Integer.parseInt(String.valueOf(settings.get(NODE_ID))));
+            this.sequence = null;
+        } else {
+            Properties params = new Properties();
+            params.setProperty(SequenceStyleGenerator.SEQUENCE_PARAM,
+                    context.getRootClass().getTable().getName().toLowerCase(Locale.ROOT) + "_seq");
+            params.setProperty(SequenceStyleGenerator.INCREMENT_PARAM, String.valueOf(SEQUENCE_BLOCK_SIZE));
+            params.setProperty(SequenceStyleGenerator.OPT_PARAM, "pooled");
+            this.snowflake = null;
+            this.sequence = new SequenceStyleGenerator();
+            this.sequence.configure(context.getProperty().getType(), params, context.getServiceRegistry());
+        }
+    }
+
+    @Override
+    public void registerExportables(Database database) {
+        if (sequence != null) {
+            sequence.registerExportables(database);
+        }
+    }
+
+    @Override
+    public void initialize(SqlStringGenerationContext context) {
+        if (sequence != null) {
+            sequence.initialize(context);
+        }
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object entity) {
+        return snowflake != null ? snowflake.nextId() : sequence.generate(session, entity);
+    }
+}
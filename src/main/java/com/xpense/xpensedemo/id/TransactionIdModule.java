@@ -0,0 +1,31 @@
+package com.xpense.xpensedemo.id;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.xpense.xpensedemo.dto.IncomeView;
+import com.xpense.xpensedemo.dto.OutputView;
+import com.xpense.xpensedemo.export.ExportRow;
+import com.xpense.xpensedemo.model.transaction.BaseTransactionEntity;
+
+/**
+ * Writes transaction ids as JSON strings. Snowflake ids are above 2^53, past the integers a
+ * JavaScript number holds exactly, so a client parsing them as numbers would see a neighbouring id.
+ * Registered only with the snowflake generator; ids sent back as strings still bind to {@code Long}.
+ */
+public class TransactionIdModule extends SimpleModule {
+
+    public TransactionIdModule() {
+        super(TransactionIdModule.class.getSimpleName());
+        setMixInAnnotation(BaseTransactionEntity.class, IdAsString.class);
+        setMixInAnnotation(OutputView.class, IdAsString.class);
+        setMixInAnnotation(IncomeView.class, IdAsString.class);
+        setMixInAnnotation(ExportRow.class, IdAsString.class);
+    }
+
+    abstract static class IdAsString {
+
+        @JsonSerialize(using = ToStringSerializer.class)
+        Long id;
+    }
+}
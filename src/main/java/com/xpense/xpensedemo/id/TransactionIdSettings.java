@@ -0,0 +1,48 @@
+package com.xpense.xpensedemo.id;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Reads {@code xpense.ids.*} and hands it to {@link TransactionIdGenerator} as Hibernate
+ * properties; the importer, which writes ids without Hibernate, asks this class directly.
+ */
+@Component
+public class TransactionIdSettings implements HibernatePropertiesCustomizer {
+
+    private final TransactionIdStrategy strategy;
+    private final int nodeId;
+
+    public TransactionIdSettings(@Value("${xpense.ids.generator:sequence}") String generator,
+                                 @Value("${xpense.ids.node-id:-1}") int nodeId) {
+        this.strategy = TransactionIdStrategy.from(generator);
+        // Two instances on one node id would hand out the same ids, so there is no default
+        if (strategy == TransactionIdStrategy.SNOWFLAKE && (nodeId < 0 || nodeId > SnowflakeIds.MAX_NODE_ID)) {
+            throw new IllegalStateException("xpense.ids.node-id must be set between 0 and " + SnowflakeIds.MAX_NODE_ID
+                    + ", unique per instance, to use the snowflake id generator");
+        }
+        this.nodeId = nodeId;
+    }
+
+    public TransactionIdStrategy strategy() {
+        return strategy;
+    }
+
+    // Snowflake ids do not fit a JavaScript number, so JSON carries them as strings
+    public boolean idsAsStrings() {
+        return strategy == TransactionIdStrategy.SNOWFLAKE;
+    }
+
+    public SnowflakeIds snowflakeIds() {
+        return SnowflakeIds.forNode(nodeId);
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(TransactionIdGenerator.STRATEGY, strategy.name());
+        hibernateProperties.put(TransactionIdGenerator.NODE_ID, String.valueOf(nodeId));
+    }
+}
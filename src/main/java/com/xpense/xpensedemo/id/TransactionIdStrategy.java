@@ -0,0 +1,22 @@
+package com.xpense.xpensedemo.id;
+
+import java.util.Locale;
+
+/**
+ * Where {@link TransactionId} gets transaction ids from, set with {@code xpense.ids.generator}.
+ */
+public enum TransactionIdStrategy {
+
+    /** Blocks of 50 from the pooled table sequences (output_seq, income_seq). */
+    SEQUENCE,
+    /** {@link SnowflakeIds} for {@code xpense.ids.node-id}; no database involved. */
+    SNOWFLAKE;
+
+    public static TransactionIdStrategy from(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Unknown id generator '" + value + "', expected sequence or snowflake", e);
+        }
+    }
+}
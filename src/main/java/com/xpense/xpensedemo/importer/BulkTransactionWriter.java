@@ -0,0 +1,157 @@
+package com.xpense.xpensedemo.importer;
+
+import com.xpense.xpensedemo.enums.TransactionKind;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+
+/**
+ * Writes imported rows into {@code output} or {@code income} on the caller's connection, so the
+ * rows commit or roll back with the surrounding transaction. PostgreSQL connections stream rows
+ * through {@code COPY FROM STDIN}; any other database gets batched inserts.
+ */
+abstract class BulkTransactionWriter {
+
+    static BulkTransactionWriter open(Connection connection, TransactionKind kind) throws SQLException {
+        String table = kind == TransactionKind.OUTPUT ? "output" : "income";
+        String columns = kind == TransactionKind.OUTPUT
+                ? "id, amount, \"date\", description, category_id"
+                : "id, amount, \"date\", description";
+        if (connection.isWrapperFor(PGConnection.class)) {
+            return new Copy(connection.unwrap(PGConnection.class), table, columns);
+        }
+        return new Batch(connection, table, columns, kind == TransactionKind.OUTPUT ? 5 : 4);
+    }
+
+    /**
+     * @param categoryId ignored for incomes
+     */
+    abstract void write(long id, double amount, LocalDate date, String description, long categoryId) throws SQLException;
+
+    abstract void finish() throws SQLException;
+
+    abstract void abort();
+
+    private static final class Copy extends BulkTransactionWriter {
+
+        private static final int FLUSH_BYTES = 64 * 1024;
+
+        private final CopyIn copyIn;
+        private final boolean withCategory;
+        private final StringBuilder line = new StringBuilder(128);
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(FLUSH_BYTES + 1024);
+
+        private Copy(PGConnection connection, String table, String columns) throws SQLException {
+            this.copyIn = connection.getCopyAPI().copyIn("COPY " + table + " (" + columns + ") FROM STDIN WITH (FORMAT csv)");
+            this.withCategory = columns.contains("category_id");
+        }
+
+        @Override
+        void write(long id, double amount, LocalDate date, String description, long categoryId) throws SQLException {
+            line.setLength(0);
+            line.append(id).append(',').append(amount).append(',').append(date).append(',');
+            appendQuoted(description);
+            if (withCategory) {
+                line.append(',').append(categoryId);
+            }
+            line.append('\n');
+            buffer.writeBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+            if (buffer.size() >= FLUSH_BYTES) {
+                flush();
+            }
+        }
+
+        @Override
+        void finish() throws SQLException {
+            flush();
+            copyIn.endCopy();
+        }
+
+        @Override
+        void abort() {
+            try {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            } catch (SQLException ignored) {
+                // The transaction is rolled back anyway
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (buffer.size() > 0) {
+                copyIn.writeToCopy(buffer.toByteArray(), 0, buffer.size());
+                buffer.reset();
+            }
+        }
+
+        private void appendQuoted(String value) {
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    line.append('"');
+                }
+                line.append(c);
+            }
+            line.append('"');
+        }
+    }
+
+    private static final class Batch extends BulkTransactionWriter {
+
+        private static final int BATCH_SIZE = 1000;
+
+        private final PreparedStatement statement;
+        private final boolean withCategory;
+        private int batched;
+
+        private Batch(Connection connection, String table, String columns, int columnCount) throws SQLException {
+            String placeholders = "?" + ", ?".repeat(columnCount - 1);
+            this.statement = connection.prepareStatement("INSERT INTO " + table + " (" + columns + ") VALUES (" + placeholders + ")");
+            this.withCategory = columnCount == 5;
+        }
+
+        @Override
+        void write(long id, double amount, LocalDate date, String description, long categoryId) throws SQLException {
+            statement.setLong(1, id);
+            statement.setDouble(2, amount);
+            statement.setDate(3, Date.valueOf(date));
+            statement.setObject(4, description, Types.VARCHAR);
+            if (withCategory) {
+                statement.setLong(5, categoryId);
+            }
+            statement.addBatch();
+            if (++batched == BATCH_SIZE) {
+                statement.executeBatch();
+                batched = 0;
+            }
+        }
+
+        @Override
+        void finish() throws SQLException {
+            try (statement) {
+                if (batched > 0) {
+                    statement.executeBatch();
+                }
+            }
+        }
+
+        @Override
+        void abort() {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+                // The transaction is rolled back anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.xpense.xpensedemo.importer;
+
+import java.time.LocalDate;
+
+/**
+ * Told about every row {@link TransactionImporter} writes, so callers can keep derived data
+ * such as rollups in step without reading the rows back.
+ */
+@FunctionalInterface
+public interface ImportedRowListener {
+
+    void imported(long id, LocalDate date, double amount, String description, long categoryId);
+}
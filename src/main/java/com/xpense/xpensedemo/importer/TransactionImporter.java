@@ -0,0 +1,286 @@
+package com.xpense.xpensedemo.importer;
+
+import com.xpense.xpensedemo.dto.ImportReport;
+import com.xpense.xpensedemo.dto.ImportReport.RejectedLine;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.exception.InvalidImportFileException;
+import com.xpense.xpensedemo.id.SnowflakeIds;
+import com.xpense.xpensedemo.id.TransactionIdSettings;
+import com.xpense.xpensedemo.id.TransactionIdStrategy;
+import com.xpense.xpensedemo.model.summary.MonthlyRollupId;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams a CSV statement into the transaction tables without going through JPA. Rows are
+ * validated one by one; bad lines are reported and skipped, good ones are written in bulk on
+ * the connection of the caller's transaction and reported to a listener.
+ *
+ * <p>The file needs a header naming at least {@code date}, {@code amount} and {@code description}
+ * columns, plus {@code category} for outputs; other columns (such as an export's {@code id})
+ * are ignored.
+ */
+@Component
+public class TransactionImporter {
+
+    // Must match the sequences' INCREMENT BY and the entities' allocation size
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final int ID_BLOCKS_PER_FETCH = 200;
+    // Width of the description columns
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+
+    private final DataSource dataSource;
+    private final TransactionIdSettings idSettings;
+
+    public TransactionImporter(DataSource dataSource, TransactionIdSettings idSettings) {
+        this.dataSource = dataSource;
+        this.idSettings = idSettings;
+    }
+
+    /**
+     * @param categoryIds category ids by name, required for outputs and ignored for incomes
+     * @param listener    told about every imported row
+     */
+    public ImportReport importCsv(TransactionKind kind, InputStream csv, Map<String, Long> categoryIds,
+                                  ImportedRowListener listener) throws IOException {
+        long started = System.nanoTime();
+        CsvRecordReader reader = new CsvRecordReader(
+                new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8), 64 * 1024));
+        Columns columns = Columns.of(reader.next(), kind);
+
+        long imported = 0;
+        long rejected = 0;
+        List<RejectedLine> rejectedLines = new ArrayList<>();
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        BulkTransactionWriter writer = null;
+        boolean finished = false;
+        try (IdSource ids = idSource(kind)) {
+            writer = BulkTransactionWriter.open(connection, kind);
+
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                try {
+                    LocalDate date = columns.date(record);
+                    double amount = columns.amount(record);
+                    String description = columns.description(record);
+                    long categoryId = kind == TransactionKind.OUTPUT
+                            ? columns.categoryId(record, categoryIds)
+                            : MonthlyRollupId.NO_CATEGORY;
+
+                    long id = ids.next();
+                    writer.write(id, amount, date, description, categoryId);
+                    listener.imported(id, date, amount, description, categoryId);
+                    imported++;
+                } catch (RejectedRowException e) {
+                    rejected++;
+                    if (rejectedLines.size() < ImportReport.MAX_REJECTED_LINES) {
+                        rejectedLines.add(new RejectedLine(reader.recordLine(), e.getMessage()));
+                    }
+                }
+            }
+            writer.finish();
+            finished = true;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Import failed: " + e.getMessage(), e);
+        } finally {
+            // An unfinished COPY would leave the connection unusable for the rollback
+            if (!finished && writer != null) {
+                writer.abort();
+            }
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+
+        long elapsedNanos = System.nanoTime() - started;
+        double rowsPerSecond = elapsedNanos == 0 ? 0 : imported * 1_000_000_000.0 / elapsedNanos;
+        return new ImportReport(imported, rejected, rejectedLines, elapsedNanos / 1_000_000, rowsPerSecond);
+    }
+
+    // Ids must come from wherever the entities get theirs, see TransactionIdGenerator
+    private IdSource idSource(TransactionKind kind) {
+        if (idSettings.strategy() == TransactionIdStrategy.SNOWFLAKE) {
+            return new SnowflakeIdSource(idSettings.snowflakeIds());
+        }
+        return new IdBlocks(dataSource, kind == TransactionKind.OUTPUT ? "output_seq" : "income_seq");
+    }
+
+    private interface IdSource extends AutoCloseable {
+
+        long next() throws SQLException;
+
+        @Override
+        void close();
+    }
+
+    private record SnowflakeIdSource(SnowflakeIds ids) implements IdSource {
+
+        @Override
+        public long next() {
+            return ids.nextId();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Hands out ids the same way Hibernate's pooled optimizer does: each {@code nextval} reserves
+     * the {@code ID_BLOCK_SIZE} ids ending at the returned value, so imported rows and entity
+     * inserts never collide and the sequence advances once per block rather than once per row.
+     *
+     * <p>Blocks are fetched on a connection of their own, borrowed per fetch: the import's
+     * connection may be busy with a COPY, which takes no other statement until it ends. Sequences
+     * ignore transactions, so the ids are the same either way.
+     */
+    private static final class IdBlocks implements IdSource {
+
+        private final DataSource dataSource;
+        private final String fetch;
+        private final long[] blockEnds = new long[ID_BLOCKS_PER_FETCH];
+        private int blockCount;
+        private int blockIndex;
+        private long next = 1;
+        private long last = 0;
+
+        private IdBlocks(DataSource dataSource, String sequence) {
+            this.dataSource = dataSource;
+            this.fetch = "SELECT nextval('" + sequence + "') FROM generate_series(1, " + ID_BLOCKS_PER_FETCH + ")";
+        }
+
+        @Override
+        public long next() throws SQLException {
+            while (next > last) {
+                if (blockIndex == blockCount) {
+                    refill();
+                }
+                long end = blockEnds[blockIndex++];
+                // A value below the block size would reach ids below 1, so that block is skipped
+                if (end >= ID_BLOCK_SIZE) {
+                    next = end - ID_BLOCK_SIZE + 1;
+                    last = end;
+                }
+            }
+            return next++;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void refill() throws SQLException {
+            blockCount = 0;
+            blockIndex = 0;
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(fetch);
+                 ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    blockEnds[blockCount++] = rows.getLong(1);
+                }
+            }
+        }
+    }
+
+    private record Columns(int date, int amount, int description, int category) {
+
+        static Columns of(List<String> header, TransactionKind kind) {
+            if (header == null) {
+                throw new InvalidImportFileException("the file is empty");
+            }
+            List<String> names = header.stream().map(name -> name.trim().toLowerCase(Locale.ROOT)).toList();
+            int category = names.indexOf("category");
+            if (kind == TransactionKind.OUTPUT && category < 0) {
+                throw new InvalidImportFileException("header must name a category column");
+            }
+            return new Columns(require(names, "date"), require(names, "amount"), require(names, "description"), category);
+        }
+
+        private static int require(List<String> names, String column) {
+            int index = names.indexOf(column);
+            if (index < 0) {
+                throw new InvalidImportFileException("header must name a " + column + " column");
+            }
+            return index;
+        }
+
+        LocalDate date(List<String> record) {
+            String value = field(record, date);
+            try {
+                return LocalDate.parse(value.trim());
+            } catch (DateTimeParseException e) {
+                throw new RejectedRowException("Invalid date '" + value + "'");
+            }
+        }
+
+        double amount(List<String> record) {
+            String value = field(record, amount);
+            double parsed;
+            try {
+                parsed = Double.parseDouble(value.trim());
+            } catch (NumberFormatException e) {
+                throw new RejectedRowException("Invalid amount '" + value + "'");
+            }
+            if (!(parsed > 0) || Double.isInfinite(parsed)) {
+                throw new RejectedRowException("Amount must be positive");
+            }
+            return parsed;
+        }
+
+        String description(List<String> record) {
+            String value = field(record, description);
+            if (value.isBlank()) {
+                throw new RejectedRowException("Description cannot be blank");
+            }
+            if (value.length() > MAX_DESCRIPTION_LENGTH) {
+                throw new RejectedRowException("Description is longer than " + MAX_DESCRIPTION_LENGTH + " characters");
+            }
+            return value;
+        }
+
+        long categoryId(List<String> record, Map<String, Long> categoryIds) {
+            String value = field(record, category).trim();
+            if (value.isEmpty()) {
+                throw new RejectedRowException("Category cannot be blank");
+            }
+            Long id = categoryIds.get(value);
+            if (id == null) {
+                throw new RejectedRowException("Unknown category '" + value + "'");
+            }
+            return id;
+        }
+
+        private static String field(List<String> record, int index) {
+            if (index >= record.size()) {
+                throw new RejectedRowException("Expected at least " + (index + 1) + " columns, found " + record.size());
+            }
+            return record.get(index);
+        }
+    }
+
+    private static final class RejectedRowException extends RuntimeException {
+
+        RejectedRowException(String reason) {
+            super(reason, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package com.xpense.xpensedemo.ingestion;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.xpense.xpensedemo.dto.IncomeDTO;
+import com.xpense.xpensedemo.dto.IngestionReceipt;
+import com.xpense.xpensedemo.dto.OutputDTO;
+import com.xpense.xpensedemo.enums.IngestionStatus;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.exception.IngestionUnavailableException;
+import com.xpense.xpensedemo.exception.InvalidTransactionException;
+import com.xpense.xpensedemo.service.CategoryService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Accepts single creates without waiting for the database: a request is validated, written to the
+ * {@link WriteAheadLog} and queued, and one worker thread stores the queue in batches once
+ * {@code batch-size} records are waiting or {@code flush-interval} has passed since the first.
+ * Records the process did not get to store are read back from the log on the next start.
+ *
+ * <p>Only created with {@code xpense.ingestion.async.enabled=true}; clients opt in per request
+ * with {@code Prefer: respond-async} and follow the returned tracking id. Once the log cannot be
+ * written the queue refuses new records until a restart and reports itself down on
+ * {@code /actuator/health}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "xpense.ingestion.async", name = "enabled", havingValue = "true")
+public class IngestionQueue implements SmartLifecycle, MeterBinder, HealthIndicator {
+
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+    private static final long MIN_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final IngestionWriter writer;
+    private final CategoryService categoryService;
+    private final int capacity;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final Path walDirectory;
+    private final DataSize segmentSize;
+    private final Duration shutdownTimeout;
+    private final boolean createMissingCategories;
+
+    // Unbounded so records replayed at startup always fit; new ones are refused at capacity
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    // Keeps queue order equal to sequence order, which the checkpoint relies on
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Cache<String, IngestionReceipt> receipts;
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private WriteAheadLog wal;
+    private Thread worker;
+    private volatile boolean running;
+    // Why the queue stopped accepting, when the log failed rather than the application stopping it
+    private volatile IOException failure;
+
+    public IngestionQueue(IngestionWriter writer, CategoryService categoryService,
+                          @Value("${xpense.ingestion.async.capacity:10000}") int capacity,
+                          @Value("${xpense.ingestion.async.batch-size:500}") int batchSize,
+                          @Value("${xpense.ingestion.async.flush-interval:200ms}") Duration flushInterval,
+                          @Value("${xpense.ingestion.async.wal-directory:data/ingestion-wal}") Path walDirectory,
+                          @Value("${xpense.ingestion.async.segment-size:64MB}") DataSize segmentSize,
+                          @Value("${xpense.ingestion.async.shutdown-timeout:30s}") Duration shutdownTimeout,
+                          @Value("${xpense.ingestion.async.receipt-ttl:1h}") Duration receiptTtl,
+                          @Value("${xpense.ingestion.async.receipt-max-size:100000}") long receiptMaxSize,
+                          @Value("${xpense.categories.create-missing:false}") boolean createMissingCategories) {
+        this.writer = writer;
+        this.categoryService = categoryService;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.walDirectory = walDirectory;
+        this.segmentSize = segmentSize;
+        this.shutdownTimeout = shutdownTimeout;
+        this.createMissingCategories = createMissingCategories;
+        this.receipts = Caffeine.newBuilder()
+                .expireAfterWrite(receiptTtl)
+                .maximumSize(receiptMaxSize)
+                .build();
+    }
+
+    public IngestionReceipt enqueueOutput(OutputDTO output) {
+        // Otherwise the worker creates the category along with the output
+        if (!createMissingCategories && categoryService.getCategoryByName(output.category()).isEmpty()) {
+            throw new InvalidTransactionException("Unknown category: " + output.category());
+        }
+        return enqueue(TransactionKind.OUTPUT, output.description(), output.category(), output.amount(), output.date());
+    }
+
+    public IngestionReceipt enqueueIncome(IncomeDTO income) {
+        return enqueue(TransactionKind.INCOME, income.description(), income.category(), income.amount(), income.date());
+    }
+
+    /**
+     * Receipts are kept for {@code receipt-ttl} after their last change, and at most
+     * {@code receipt-max-size} of them; under sustained load the oldest go first.
+     */
+    public Optional<IngestionReceipt> status(String trackingId) {
+        return Optional.ofNullable(receipts.getIfPresent(trackingId));
+    }
+
+    public int depth() {
+        return queue.size();
+    }
+
+    // Everything the worker could only find out by failing is checked here, before the record is accepted
+    private IngestionReceipt enqueue(TransactionKind kind, String description, String category, double amount,
+                                     String date) {
+        try {
+            LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new InvalidTransactionException("Invalid date: " + date);
+        }
+        if (description != null && description.length() > MAX_DESCRIPTION_LENGTH) {
+            throw new InvalidTransactionException("Description cannot be longer than " + MAX_DESCRIPTION_LENGTH
+                    + " characters");
+        }
+
+        IngestionReceipt receipt = new IngestionReceipt(UUID.randomUUID().toString(), IngestionStatus.QUEUED, null);
+        long position;
+        appendLock.lock();
+        try {
+            if (!running) {
+                throw new IngestionUnavailableException("Ingestion queue is not running");
+            }
+            if (queue.size() >= capacity) {
+                throw new IngestionUnavailableException("Ingestion queue is full, retry later");
+            }
+            IngestionRecord record = new IngestionRecord(wal.nextSequence(), receipt.trackingId(), kind,
+                    description, category, amount, date);
+            position = wal.append(record);
+            receipts.put(receipt.trackingId(), receipt);
+            // Queued before it is durable, but the worker stores nothing that is not; see flush()
+            queue.add(new Pending(record, position));
+        } catch (IOException e) {
+            // A partly written record would hide every later one from recovery
+            running = false;
+            failure = e;
+            throw new IngestionUnavailableException("Could not write to the ingestion log", e);
+        } finally {
+            appendLock.unlock();
+        }
+
+        // Outside the lock, so requests arriving meanwhile share the next fsync
+        try {
+            wal.sync(position);
+        } catch (IOException e) {
+            // The worker finds the record is not on disk and drops it, so the client can safely retry
+            fail(e);
+            throw new IngestionUnavailableException("Could not write to the ingestion log", e);
+        }
+        return receipt;
+    }
+
+    @Override
+    public void start() {
+        try {
+            wal = new WriteAheadLog(walDirectory, segmentSize.toBytes());
+            for (IngestionRecord record : wal.recover(writer.checkpoint(wal.id()))) {
+                receipts.put(record.trackingId(), new IngestionReceipt(record.trackingId(), IngestionStatus.QUEUED, null));
+                // Read back from disk, so already durable
+                queue.add(new Pending(record, 0));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open the ingestion log in " + walDirectory, e);
+        }
+        running = true;
+        worker = Thread.ofPlatform().name("xpense-ingestion").start(this::work);
+    }
+
+    /**
+     * Stops taking records and gives the worker {@code shutdown-timeout} to store the queue.
+     * Whatever is left stays in the log for the next start.
+     */
+    @Override
+    public void stop() {
+        stopAccepting();
+        try {
+            worker.join(shutdownTimeout);
+            if (worker.isAlive()) {
+                worker.interrupt();
+                worker.join();
+            }
+            wal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // Every accepted record was forced to disk before it was acknowledged
+        }
+    }
+
+    private void fail(IOException cause) {
+        failure = cause;
+        stopAccepting();
+    }
+
+    private void stopAccepting() {
+        appendLock.lock();
+        try {
+            running = false;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public Health health() {
+        IOException cause = failure;
+        if (cause != null) {
+            return Health.down(cause).withDetail("depth", queue.size()).build();
+        }
+        return (running ? Health.up() : Health.outOfService()).withDetail("depth", queue.size()).build();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Starts before the web server takes requests and stops only once it no longer does
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("xpense.ingestion.queue.depth", queue, BlockingQueue::size)
+                .description("Accepted transactions waiting to be stored")
+                .register(registry);
+        Gauge.builder("xpense.ingestion.queue.remaining", queue, q -> Math.max(0, capacity - q.size()))
+                .description("Transactions the queue accepts before refusing with 503")
+                .register(registry);
+        FunctionCounter.builder("xpense.ingestion.records", stored, AtomicLong::get)
+                .description("Queued transactions processed by the worker")
+                .tag("status", "stored")
+                .register(registry);
+        FunctionCounter.builder("xpense.ingestion.records", failed, AtomicLong::get)
+                .description("Queued transactions processed by the worker")
+                .tag("status", "failed")
+                .register(registry);
+    }
+
+    // Keeps going after stop() until the queue is empty or the worker is interrupted
+    private void work() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                Pending first = queue.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushInterval.toNanos();
+                while (batch.size() < batchSize) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Unstored records are replayed from the log on the next start
+        }
+    }
+
+    // A record is stored only once it is on disk. Whoever forces the log first covers everything
+    // before it, and after a failed fsync no later one succeeds, so the records on disk are always
+    // a prefix of the queue and agree with what their requests were answered.
+    private void flush(List<Pending> batch) throws InterruptedException {
+        int durable = durablePrefix(batch);
+        if (durable > 0) {
+            store(batch.subList(0, durable).stream().map(Pending::record).toList());
+        }
+        if (durable < batch.size()) {
+            // Their requests were refused with 503; skipping them keeps a restart from replaying them
+            List<Pending> refused = batch.subList(durable, batch.size());
+            skip(refused.get(refused.size() - 1).record());
+            refused.forEach(pending -> finish(pending.record(), IngestionStatus.FAILED,
+                    "Could not write to the ingestion log"));
+        }
+        try {
+            wal.checkpoint(batch.get(batch.size() - 1).record().sequence());
+        } catch (IOException e) {
+            // Segments left behind are deleted by a later checkpoint
+        }
+    }
+
+    private int durablePrefix(List<Pending> batch) {
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            try {
+                wal.sync(batch.get(i).position());
+                return i + 1;
+            } catch (IOException e) {
+                // Try the record before it; one forced before the failure is still on disk
+                fail(e);
+            }
+        }
+        return 0;
+    }
+
+    private void store(List<IngestionRecord> batch) throws InterruptedException {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (true) {
+            try {
+                writer.store(wal.id(), batch);
+                batch.forEach(record -> finish(record, IngestionStatus.STORED, null));
+                return;
+            } catch (RuntimeException e) {
+                if (!isTransient(e)) {
+                    // One bad record rolls back the whole batch; store them one by one to find it
+                    for (IngestionRecord record : batch) {
+                        storeOne(record);
+                    }
+                    return;
+                }
+                backoff = backOff(backoff);
+            }
+        }
+    }
+
+    private void storeOne(IngestionRecord record) throws InterruptedException {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (true) {
+            try {
+                writer.store(wal.id(), List.of(record));
+                finish(record, IngestionStatus.STORED, null);
+                return;
+            } catch (RuntimeException e) {
+                if (!isTransient(e)) {
+                    skip(record);
+                    finish(record, IngestionStatus.FAILED, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                    return;
+                }
+                // The database is unreachable or busy; the record stays first in line until it is back
+                backoff = backOff(backoff);
+            }
+        }
+    }
+
+    // Moves the checkpoint past a record that can never be stored
+    private void skip(IngestionRecord record) throws InterruptedException {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (true) {
+            try {
+                writer.skip(wal.id(), record.sequence());
+                return;
+            } catch (RuntimeException e) {
+                if (!isTransient(e)) {
+                    // Replayed and failed again on the next start at worst
+                    return;
+                }
+                backoff = backOff(backoff);
+            }
+        }
+    }
+
+    // Failures that go away once the database is reachable again. Anything else, a constraint,
+    // a category deleted since the record was accepted or a bug, fails the same way on every try.
+    private static boolean isTransient(RuntimeException e) {
+        if (e instanceof TransactionSystemException) {
+            // A commit the database refused fails again; only a connection lost while committing is worth a retry
+            return isConnectionFailure(NestedExceptionUtils.getMostSpecificCause(e));
+        }
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    // SQLState class 08 is a connection exception
+    private static boolean isConnectionFailure(Throwable cause) {
+        return cause instanceof SQLTransientConnectionException
+                || cause instanceof SQLRecoverableException
+                || cause instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08");
+    }
+
+    private static long backOff(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+        return Math.min(millis * 2, MAX_BACKOFF_MILLIS);
+    }
+
+    private void finish(IngestionRecord record, IngestionStatus status, String error) {
+        receipts.put(record.trackingId(), new IngestionReceipt(record.trackingId(), status, error));
+        (status == IngestionStatus.STORED ? stored : failed).incrementAndGet();
+    }
+
+    // position is what WriteAheadLog.sync needs to make the record durable
+    private record Pending(IngestionRecord record, long position) {
+    }
+}
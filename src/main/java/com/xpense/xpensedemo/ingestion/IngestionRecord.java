@@ -0,0 +1,21 @@
+package com.xpense.xpensedemo.ingestion;
+
+import com.xpense.xpensedemo.dto.IncomeDTO;
+import com.xpense.xpensedemo.dto.OutputDTO;
+import com.xpense.xpensedemo.enums.TransactionKind;
+
+/**
+ * One accepted create request, as written to the {@link WriteAheadLog} and held in the queue.
+ * Sequences are assigned by the log in acceptance order and never reused.
+ */
+public record IngestionRecord(long sequence, String trackingId, TransactionKind kind, String description,
+                              String category, double amount, String date) {
+
+    OutputDTO toOutputDTO() {
+        return new OutputDTO(description, category, amount, date);
+    }
+
+    IncomeDTO toIncomeDTO() {
+        return new IncomeDTO(description, category, amount, date);
+    }
+}
@@ -0,0 +1,66 @@
+package com.xpense.xpensedemo.ingestion;
+
+import com.xpense.xpensedemo.dto.IncomeDTO;
+import com.xpense.xpensedemo.dto.OutputDTO;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.model.ingestion.IngestionCheckpoint;
+import com.xpense.xpensedemo.repository.IngestionCheckpointRepository;
+import com.xpense.xpensedemo.service.IncomeService;
+import com.xpense.xpensedemo.service.OutputService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Stores queued records through the services' batch paths, so rollups, analytics and ETags see
+ * them like any other write, and moves the log's checkpoint in the same transaction.
+ */
+@Component
+public class IngestionWriter {
+
+    private final OutputService outputService;
+    private final IncomeService incomeService;
+    private final IngestionCheckpointRepository checkpoints;
+
+    public IngestionWriter(OutputService outputService, IncomeService incomeService,
+                           IngestionCheckpointRepository checkpoints) {
+        this.outputService = outputService;
+        this.incomeService = incomeService;
+        this.checkpoints = checkpoints;
+    }
+
+    // Read-write on purpose: a read-only transaction could be routed to a lagging replica
+    @Transactional
+    public long checkpoint(String walId) {
+        return checkpoints.findById(walId).map(IngestionCheckpoint::getLastSequence).orElse(0L);
+    }
+
+    /**
+     * @param records in sequence order
+     */
+    @Transactional
+    public void store(String walId, List<IngestionRecord> records) {
+        List<OutputDTO> outputs = records.stream()
+                .filter(record -> record.kind() == TransactionKind.OUTPUT)
+                .map(IngestionRecord::toOutputDTO)
+                .toList();
+        List<IncomeDTO> incomes = records.stream()
+                .filter(record -> record.kind() == TransactionKind.INCOME)
+                .map(IngestionRecord::toIncomeDTO)
+                .toList();
+        if (!outputs.isEmpty()) {
+            outputService.createOutputs(outputs);
+        }
+        if (!incomes.isEmpty()) {
+            incomeService.createIncomes(incomes);
+        }
+        checkpoints.save(new IngestionCheckpoint(walId, records.get(records.size() - 1).sequence()));
+    }
+
+    // Moves past a record that can never be stored, so a replay does not try it again
+    @Transactional
+    public void skip(String walId, long sequence) {
+        checkpoints.save(new IngestionCheckpoint(walId, sequence));
+    }
+}
@@ -0,0 +1,314 @@
+package com.xpense.xpensedemo.ingestion;
+
+import com.xpense.xpensedemo.enums.TransactionKind;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of accepted transactions on local disk, so a crash between accepting a create
+ * request and storing it loses nothing. Records are length-prefixed and checksummed; one torn by a
+ * crash mid-write is cut off on recovery. The log rolls over to a new segment file once the current
+ * one passes the size limit, and a segment is deleted once every record in it is stored.
+ *
+ * <p>Appends must be serialized by the caller, which also fixes the record order. {@link #sync}
+ * may be called from any thread: whoever forces the file covers every append before it, so
+ * concurrent writers share one fsync.
+ */
+public class WriteAheadLog implements Closeable {
+
+    private static final String ID_FILE = "wal.id";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    // length and CRC-32 of the payload
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_PAYLOAD_BYTES = 1 << 20;
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final String id;
+    // Segments no longer appended to, by the sequence of their first record
+    private final NavigableMap<Long, Path> closedSegments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock forceLock = new ReentrantLock();
+
+    private FileChannel segment;
+    private Path segmentPath;
+    private volatile long segmentFirstSequence;
+    private long nextSequence;
+    // Bytes appended and forced to disk over the life of this instance, across segments
+    private volatile long appendedBytes;
+    private long forcedBytes;
+    // After a failed fsync the kernel may already have dropped the dirty pages, so a later one that
+    // succeeds proves nothing about the records before it; every later sync fails the same way
+    private IOException forceFailure;
+
+    public WriteAheadLog(Path directory, long segmentBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentBytes = segmentBytes;
+        this.id = readOrCreateId();
+    }
+
+    /**
+     * Identifies this log in the checkpoint table; kept in the directory, so it survives restarts.
+     */
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Reads back every record after the checkpoint and opens a new segment for appending after the
+     * last one. Call once, before the first append.
+     */
+    public List<IngestionRecord> recover(long checkpoint) throws IOException {
+        List<Path> segments = segments();
+        List<IngestionRecord> pending = new ArrayList<>();
+        long lastSequence = checkpoint;
+        for (int i = 0; i < segments.size(); i++) {
+            Path path = segments.get(i);
+            SegmentContents contents = read(path);
+            if (contents.validBytes() < Files.size(path)) {
+                if (i < segments.size() - 1) {
+                    throw new IOException("Corrupt write-ahead log segment " + path);
+                }
+                // Only the record being written when the process died can be incomplete
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(contents.validBytes());
+                    channel.force(true);
+                }
+            }
+            if (contents.records().isEmpty()) {
+                Files.delete(path);
+                continue;
+            }
+            for (IngestionRecord record : contents.records()) {
+                if (record.sequence() > checkpoint) {
+                    pending.add(record);
+                }
+                lastSequence = Math.max(lastSequence, record.sequence());
+            }
+            closedSegments.put(contents.records().get(0).sequence(), path);
+        }
+        nextSequence = lastSequence + 1;
+        openSegment();
+        checkpoint(checkpoint);
+        return pending;
+    }
+
+    public long nextSequence() {
+        return nextSequence;
+    }
+
+    /**
+     * Writes the record, which must carry {@link #nextSequence()}, without forcing it to disk.
+     *
+     * @return the position to pass to {@link #sync(long)} to make the record durable
+     */
+    public long append(IngestionRecord record) throws IOException {
+        if (record.sequence() != nextSequence) {
+            throw new IllegalArgumentException("Expected sequence " + nextSequence + ", got " + record.sequence());
+        }
+        ByteBuffer frame = ByteBuffer.wrap(encode(record));
+        if (segment.position() > 0 && segment.position() + frame.remaining() > segmentBytes) {
+            rollOver();
+        }
+        while (frame.hasRemaining()) {
+            segment.write(frame);
+        }
+        nextSequence++;
+        appendedBytes += frame.capacity();
+        return appendedBytes;
+    }
+
+    /**
+     * Returns once everything appended up to the position is on disk. Once forcing the file has
+     * failed, throws for every position not already on disk by then.
+     */
+    public void sync(long position) throws IOException {
+        forceLock.lock();
+        try {
+            if (forcedBytes >= position) {
+                return;
+            }
+            long end = appendedBytes;
+            force();
+            forcedBytes = end;
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the closed segments whose records are all stored up to the given sequence.
+     */
+    public void checkpoint(long storedSequence) throws IOException {
+        for (Map.Entry<Long, Path> closed : closedSegments.entrySet()) {
+            Long nextFirst = closedSegments.higherKey(closed.getKey());
+            long lastInSegment = (nextFirst == null ? segmentFirstSequence : nextFirst) - 1;
+            if (lastInSegment > storedSequence) {
+                return;
+            }
+            Files.deleteIfExists(closed.getValue());
+            closedSegments.remove(closed.getKey());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        forceLock.lock();
+        try {
+            if (segment != null) {
+                segment.force(false);
+                segment.close();
+            }
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    // Callers hold forceLock
+    private void force() throws IOException {
+        if (forceFailure != null) {
+            throw new IOException("The write-ahead log could not be forced to disk before", forceFailure);
+        }
+        try {
+            segment.force(false);
+        } catch (IOException e) {
+            forceFailure = e;
+            throw e;
+        }
+    }
+
+    private void rollOver() throws IOException {
+        forceLock.lock();
+        try {
+            force();
+            forcedBytes = appendedBytes;
+            segment.close();
+            Path closedPath = segmentPath;
+            long closedFirst = segmentFirstSequence;
+            openSegment();
+            // Registered only once the new segment's first sequence bounds it, see checkpoint()
+            closedSegments.put(closedFirst, closedPath);
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    private void openSegment() throws IOException {
+        segmentPath = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence, SEGMENT_SUFFIX));
+        segment = FileChannel.open(segmentPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentFirstSequence = nextSequence;
+    }
+
+    private String readOrCreateId() throws IOException {
+        Path idFile = directory.resolve(ID_FILE);
+        if (Files.exists(idFile)) {
+            return Files.readString(idFile, StandardCharsets.UTF_8).trim();
+        }
+        String newId = UUID.randomUUID().toString();
+        Files.writeString(idFile, newId, StandardCharsets.UTF_8, StandardOpenOption.CREATE_NEW, StandardOpenOption.SYNC);
+        return newId;
+    }
+
+    // Zero-padded names sort in sequence order
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static byte[] encode(IngestionRecord record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeInt(0);
+        out.writeLong(record.sequence());
+        out.writeUTF(record.trackingId());
+        out.writeUTF(record.kind().name());
+        out.writeUTF(record.description());
+        out.writeBoolean(record.category() != null);
+        if (record.category() != null) {
+            out.writeUTF(record.category());
+        }
+        out.writeDouble(record.amount());
+        out.writeUTF(record.date());
+
+        byte[] frame = bytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(frame, HEADER_BYTES, frame.length - HEADER_BYTES);
+        ByteBuffer.wrap(frame).putInt(0, frame.length - HEADER_BYTES).putInt(4, (int) crc.getValue());
+        return frame;
+    }
+
+    private static IngestionRecord decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        long sequence = in.readLong();
+        String trackingId = in.readUTF();
+        TransactionKind kind = TransactionKind.valueOf(in.readUTF());
+        String description = in.readUTF();
+        String category = in.readBoolean() ? in.readUTF() : null;
+        double amount = in.readDouble();
+        String date = in.readUTF();
+        return new IngestionRecord(sequence, trackingId, kind, description, category, amount, date);
+    }
+
+    // Reads up to the first incomplete or damaged record
+    private static SegmentContents read(Path path) throws IOException {
+        List<IngestionRecord> records = new ArrayList<>();
+        long validBytes = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                int length;
+                int checksum;
+                byte[] payload;
+                try {
+                    length = in.readInt();
+                    if (length <= 0 || length > MAX_PAYLOAD_BYTES) {
+                        break;
+                    }
+                    checksum = in.readInt();
+                    payload = in.readNBytes(length);
+                } catch (EOFException e) {
+                    break;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(payload);
+                if (payload.length < length || (int) crc.getValue() != checksum) {
+                    break;
+                }
+                records.add(decode(payload));
+                validBytes += HEADER_BYTES + length;
+            }
+        }
+        return new SegmentContents(records, validBytes);
+    }
+
+    private record SegmentContents(List<IngestionRecord> records, long validBytes) {
+    }
+}
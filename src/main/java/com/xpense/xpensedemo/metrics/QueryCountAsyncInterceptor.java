@@ -0,0 +1,34 @@
+package com.xpense.xpensedemo.metrics;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Carries a request's query count onto the MVC async thread that runs its callable or
+ * {@code StreamingResponseBody}, so statements sent while streaming count towards the request.
+ */
+public class QueryCountAsyncInterceptor implements CallableProcessingInterceptor {
+
+    private final QueryCounter counter;
+
+    public QueryCountAsyncInterceptor(QueryCounter counter) {
+        this.counter = counter;
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        Object scope = request.getAttribute(QueryCountFilter.SCOPE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (scope instanceof AtomicInteger queries) {
+            counter.attach(queries);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object result) {
+        counter.detach();
+    }
+}
@@ -0,0 +1,87 @@
+package com.xpense.xpensedemo.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records how many SQL statements each request issued as {@code xpense.http.queries}, tagged by
+ * method and route template so N+1 patterns show up per endpoint rather than per URL. An async
+ * request, such as a streamed export, is recorded once it completes; {@link QueryCountAsyncInterceptor}
+ * counts the statements its worker thread sends.
+ */
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    static final String SCOPE_ATTRIBUTE = QueryCountFilter.class.getName() + ".scope";
+
+    private final QueryCounter counter;
+    private final MeterRegistry registry;
+
+    public QueryCountFilter(QueryCounter counter, MeterRegistry registry) {
+        this.counter = counter;
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AtomicInteger queries = counter.start();
+        request.setAttribute(SCOPE_ATTRIBUTE, queries);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            counter.detach();
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        record(request, queries.get());
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                record(request, queries.get());
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, int queries) {
+        DistributionSummary.builder("xpense.http.queries")
+                .description("SQL statements executed per HTTP request")
+                .baseUnit("statements")
+                .tag("method", request.getMethod())
+                .tag("uri", routeOf(request))
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(queries);
+    }
+
+    // Same route template the http.server.requests timer uses; unmatched paths share one tag
+    private static String routeOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
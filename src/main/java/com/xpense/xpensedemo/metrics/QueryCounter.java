@@ -0,0 +1,44 @@
+package com.xpense.xpensedemo.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the SQL statements sent on the current thread between {@link #start()} and
+ * {@link #stop()}. {@link QueryCountingDataSource} reports every statement, whether it comes from
+ * Hibernate, a JdbcTemplate or a COPY; statements outside a counting scope pass through untouched.
+ * A scope can follow its request onto another thread with {@link #attach} and {@link #detach}.
+ */
+@Component
+public class QueryCounter {
+
+    private final ThreadLocal<AtomicInteger> count = new ThreadLocal<>();
+
+    void increment() {
+        AtomicInteger current = count.get();
+        if (current != null) {
+            current.incrementAndGet();
+        }
+    }
+
+    public AtomicInteger start() {
+        AtomicInteger scope = new AtomicInteger();
+        count.set(scope);
+        return scope;
+    }
+
+    public int stop() {
+        AtomicInteger current = count.get();
+        count.remove();
+        return current == null ? 0 : current.get();
+    }
+
+    void attach(AtomicInteger scope) {
+        count.set(scope);
+    }
+
+    void detach() {
+        count.remove();
+    }
+}
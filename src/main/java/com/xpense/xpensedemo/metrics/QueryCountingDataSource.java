@@ -0,0 +1,90 @@
+package com.xpense.xpensedemo.metrics;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Reports every statement sent through the application's connections to {@link QueryCounter}:
+ * one per prepared statement, one per SQL string run on a plain statement, and one per COPY
+ * (counted when its CopyManager is taken).
+ * Counting here rather than in Hibernate also sees JdbcTemplate and the importer.
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> PREPARES = Set.of("prepareStatement", "prepareCall");
+    private static final Set<String> EXECUTES = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "addBatch");
+
+    private final QueryCounter counter;
+
+    public QueryCountingDataSource(DataSource target, QueryCounter counter) {
+        super(target);
+        this.counter = counter;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(Connection.class, super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(Connection.class, super.getConnection(username, password));
+    }
+
+    private <T> T counting(Class<T> type, T target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getTargetConnection":
+                    return target;
+                default:
+                    break;
+            }
+            if (type == Connection.class && name.equals("unwrap") && args[0] == PGConnection.class) {
+                return counting(PGConnection.class, target instanceof Connection connection
+                        ? connection.unwrap(PGConnection.class) : null);
+            }
+            if ((name.equals("unwrap") || name.equals("isWrapperFor")) && ((Class<?>) args[0]).isInstance(proxy)) {
+                return name.equals("unwrap") ? proxy : true;
+            }
+            // Plain statements are counted per SQL string, since one can run any number of them
+            if (PREPARES.contains(name) || (type == Statement.class && EXECUTES.contains(name) && args != null)
+                    || (type == PGConnection.class && name.equals("getCopyAPI"))) {
+                counter.increment();
+            }
+            Object result = invoke(method, target, args);
+            return type == Connection.class && name.equals("createStatement")
+                    ? counting(Statement.class, (Statement) result)
+                    : result;
+        };
+        // ConnectionProxy lets Spring's DataSourceUtils see through to the pooled connection
+        Class<?>[] interfaces = type == Connection.class
+                ? new Class<?>[]{ConnectionProxy.class}
+                : new Class<?>[]{type};
+        return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), interfaces, handler));
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
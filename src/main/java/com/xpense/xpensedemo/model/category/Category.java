@@ -1,13 +1,21 @@
 package com.xpense.xpensedemo.model.category;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.xpense.xpensedemo.dto.CategoryDTO;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "CATEGORY")
+// Read on every expense write and listing; writes through Hibernate update the cached copy on commit
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category")
+// An uninitialized lazy proxy must serialize as the category, not as Hibernate internals
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @AllArgsConstructor
 @NoArgsConstructor
 public class Category {
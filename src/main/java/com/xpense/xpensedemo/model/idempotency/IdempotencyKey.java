@@ -0,0 +1,56 @@
+package com.xpense.xpensedemo.model.idempotency;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A create request that went through under an {@code Idempotency-Key}, with what it answered.
+ * Keys are only ever inserted, so saving one skips the select a merge would do first.
+ */
+@Entity
+@Table(name = "IDEMPOTENCY_KEY")
+@Getter
+@NoArgsConstructor
+public class IdempotencyKey implements Persistable<IdempotencyKeyId> {
+
+    @EmbeddedId
+    private IdempotencyKeyId id;
+
+    @Column(name = "request_hash")
+    private String requestHash;
+
+    @Column(name = "response_body")
+    private String responseBody;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    public IdempotencyKey(IdempotencyKeyId id, String requestHash, String responseBody, LocalDateTime createdAt) {
+        this.id = id;
+        this.requestHash = requestHash;
+        this.responseBody = responseBody;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    void markLoaded() {
+        isNew = false;
+    }
+}
@@ -0,0 +1,30 @@
+package com.xpense.xpensedemo.model.idempotency;
+
+import com.xpense.xpensedemo.enums.TransactionKind;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * A key is only unique per endpoint, so the same key may create both an income and an output.
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class IdempotencyKeyId implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    private TransactionKind kind;
+
+    @Column(name = "idempotency_key")
+    private String key;
+}
@@ -0,0 +1,28 @@
+package com.xpense.xpensedemo.model.ingestion;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last write-ahead log sequence whose transaction is stored, per log. Written in the same
+ * transaction as the rows, so a replay after a crash neither skips nor repeats a record.
+ */
+@Entity
+@Table(name = "INGESTION_CHECKPOINT")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionCheckpoint {
+
+    @Id
+    @Column(name = "wal_id")
+    private String walId;
+
+    @Column(name = "last_sequence")
+    private long lastSequence;
+}
@@ -0,0 +1,25 @@
+package com.xpense.xpensedemo.model.summary;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "MONTHLY_ROLLUP")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MonthlyRollup {
+
+    @EmbeddedId
+    private MonthlyRollupId id;
+
+    private double total;
+
+    @Column(name = "tx_count")
+    private long count;
+}
@@ -0,0 +1,44 @@
+package com.xpense.xpensedemo.model.summary;
+
+import com.xpense.xpensedemo.enums.TransactionKind;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Comparator;
+
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class MonthlyRollupId implements Serializable, Comparable<MonthlyRollupId> {
+
+    // Category id used for incomes and outputs without a category
+    public static final long NO_CATEGORY = 0L;
+
+    private static final Comparator<MonthlyRollupId> ORDER = Comparator
+            .comparing(MonthlyRollupId::getMonthStart)
+            .thenComparing(MonthlyRollupId::getKind)
+            .thenComparingLong(MonthlyRollupId::getCategoryId);
+
+    @Column(name = "month_start")
+    private LocalDate monthStart;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionKind kind;
+
+    private long categoryId;
+
+    @Override
+    public int compareTo(MonthlyRollupId other) {
+        return ORDER.compare(this, other);
+    }
+}
@@ -1,9 +1,9 @@
 package com.xpense.xpensedemo.model.transaction;
 
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import com.xpense.xpensedemo.id.TransactionId;
 import jakarta.persistence.Id;
 import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
 @Setter
 public abstract class BaseTransactionEntity {
 
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Assigned before the insert, from the pooled table sequence or in process; see TransactionIdGenerator
+    @TransactionId
     @Id
     private Long id;
     
@@ -34,12 +35,15 @@ public abstract class BaseTransactionEntity {
     private LocalDate date;
     
     private Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+
+    // Optimistic lock; the services' conditional updates bump it themselves
+    @Version
+    private long version;
     
     // Constructor for creating new entities (without id)
     public BaseTransactionEntity(double amount, String description, LocalDate date) {
         this.amount = amount;
         this.description = description;
         this.date = date;
-        this.createdAt = Timestamp.valueOf(LocalDateTime.now());
     }
 }
@@ -3,7 +3,9 @@ package com.xpense.xpensedemo.model.transaction;
 import com.xpense.xpensedemo.dto.OutputDTO;
 import com.xpense.xpensedemo.model.category.Category;
 import jakarta.persistence.Entity;
-import jakarta.persistence.OneToOne;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import lombok.NoArgsConstructor;
 
@@ -14,7 +16,9 @@ import java.time.LocalDate;
 @NoArgsConstructor
 public class Output extends BaseTransactionEntity {
 
-    @OneToOne
+    // Many outputs share a category; list and by-id reads fetch it in the same query
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "category_id")
     private Category category;
 
     public Output(double amount, String description, LocalDate date) {
@@ -0,0 +1,62 @@
+package com.xpense.xpensedemo.partition;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Keeps the monthly partitions of the output and income tables (V1_0_6, PostgreSQL only) created
+ * ahead of time, so new rows land in their own month instead of the default partition. Months that
+ * ended up in the default partition anyway, e.g. from an import of old statements, get split out
+ * on the next run. Other databases have no partitions and the job does nothing.
+ */
+@Component
+public class MonthlyPartitions {
+
+    static final List<String> TABLES = List.of("output", "income");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private Boolean partitioned;
+
+    public MonthlyPartitions(JdbcTemplate jdbcTemplate,
+                             @Value("${xpense.partitions.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * Runs at startup as well, so an instance that was down over a month boundary catches up
+     * before it takes writes for long.
+     *
+     * @return the number of partitions created
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${xpense.partitions.cron:0 0 3 * * *}")
+    public int createUpcoming() {
+        if (!isPartitioned()) {
+            return 0;
+        }
+        int created = 0;
+        for (String table : TABLES) {
+            Integer count = jdbcTemplate.queryForObject("select ensure_monthly_partitions(?, ?)", Integer.class,
+                    table, monthsAhead);
+            created += count == null ? 0 : count;
+        }
+        return created;
+    }
+
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            partitioned = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()));
+        }
+        return Boolean.TRUE.equals(partitioned);
+    }
+}
@@ -0,0 +1,20 @@
+package com.xpense.xpensedemo.repository;
+
+import com.xpense.xpensedemo.model.category.Category;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Creates categories without a check-then-insert race: a name inserted concurrently by another
+ * transaction is skipped instead of failing on the unique constraint.
+ */
+public interface CategoryUpsert {
+
+    /**
+     * Inserts the names that do not exist yet in one statement.
+     *
+     * @return the categories this call created; names that already existed are left out
+     */
+    List<Category> insertMissing(Collection<String> names);
+}
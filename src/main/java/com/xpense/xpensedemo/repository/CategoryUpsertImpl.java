@@ -0,0 +1,95 @@
+package com.xpense.xpensedemo.repository;
+
+import com.xpense.xpensedemo.model.category.Category;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Runs on the JDBC connection of the surrounding transaction. Hibernate does not see these
+ * inserts, so a cached "no such name" answer of the category queries is dropped here by hand.
+ */
+class CategoryUpsertImpl implements CategoryUpsert {
+
+    // Sorted, so concurrent upserts take the unique index locks in the same order
+    private static final String POSTGRES_UPSERT = """
+            insert into category (name)
+            select u.name from unnest(?::varchar[]) as u(name) order by u.name
+            on conflict (name) do nothing
+            returning id, name
+            """;
+    // H2 knows neither a conflict target nor RETURNING; tests run single-writer, so the
+    // existence check is enough there
+    private static final String H2_UPSERT = """
+            select id, name from final table (
+                insert into category (name)
+                select u.name from unnest(cast(? as varchar array)) as u(name)
+                 where not exists (select 1 from category c where c.name = u.name)
+                 order by u.name)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache secondLevelCache;
+    private Boolean postgres;
+
+    CategoryUpsertImpl(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.secondLevelCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    @Override
+    public List<Category> insertMissing(Collection<String> names) {
+        if (names.isEmpty()) {
+            return List.of();
+        }
+        Object[] distinct = new TreeSet<>(names).toArray();
+        List<Category> created = jdbcTemplate.execute((ConnectionCallback<List<Category>>) connection -> {
+            if (postgres == null) {
+                postgres = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+            }
+            Array array = connection.createArrayOf("varchar", distinct);
+            try (PreparedStatement statement = connection.prepareStatement(postgres ? POSTGRES_UPSERT : H2_UPSERT)) {
+                statement.setArray(1, array);
+                List<Category> inserted = new ArrayList<>();
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        inserted.add(new Category(rows.getLong("id"), rows.getString("name")));
+                    }
+                }
+                return inserted;
+            } finally {
+                array.free();
+            }
+        });
+        if (!created.isEmpty()) {
+            evictQueryResults();
+        }
+        return created;
+    }
+
+    // The category queries are the only cacheable ones. Evicted now for this transaction, and
+    // again on completion in case a concurrent reader cached the old answer in between.
+    private void evictQueryResults() {
+        secondLevelCache.evictDefaultQueryRegion();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    secondLevelCache.evictDefaultQueryRegion();
+                }
+            });
+        }
+    }
+}
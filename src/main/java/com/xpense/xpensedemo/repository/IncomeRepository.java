@@ -1,7 +1,117 @@
 package com.xpense.xpensedemo.repository;
 
+import com.xpense.xpensedemo.dto.DailyTotal;
+import com.xpense.xpensedemo.dto.IncomeView;
 import com.xpense.xpensedemo.model.transaction.Income;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface IncomeRepository extends JpaRepository<Income, Long> {
+
+    String VIEW = "new com.xpense.xpensedemo.dto.IncomeView(i.id, i.amount, i.description, i.date, i.createdAt, i.version)";
+
+    @Query("select " + VIEW + " from Income i where i.id = :id")
+    Optional<IncomeView> findViewById(@Param("id") Long id);
+
+    // Replaces the row only if it is still at the given version, and bumps the version; returns 0
+    // when another writer changed it first
+    @Modifying
+    @Query("""
+            update Income i
+               set i.amount = :amount, i.description = :description, i.date = :date, i.version = i.version + 1
+             where i.id = :id and i.version = :version
+            """)
+    int updateIfVersion(@Param("id") Long id,
+                        @Param("version") long version,
+                        @Param("amount") double amount,
+                        @Param("description") String description,
+                        @Param("date") LocalDate date);
+
+    // Bulk operations lock the rows they are about to delete, so no concurrent update or delete can
+    // move them between summing them for the rollup and the bulk statement; see IncomeService
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i.id from Income i where i.id in :ids")
+    List<Long> lockIds(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i.id from Income i where i.date >= :startDate and i.date <= :endDate")
+    List<Long> lockIdsInRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Query("""
+            select new com.xpense.xpensedemo.dto.DailyTotal(i.date, sum(i.amount), count(i))
+              from Income i where i.id in :ids group by i.date
+            """)
+    List<DailyTotal> sumByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            select new com.xpense.xpensedemo.dto.DailyTotal(i.date, sum(i.amount), count(i))
+              from Income i where i.date >= :startDate and i.date <= :endDate group by i.date
+            """)
+    List<DailyTotal> sumInRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @Modifying
+    @Query("delete from Income i where i.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Income i where i.date >= :startDate and i.date <= :endDate")
+    int deleteInRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // Keyset page on idx_income_date_id: rows after (startDate, afterId) up to endDate.
+    // The leading range on date bounds the index scan, and on PostgreSQL prunes the monthly
+    // partitions (V1_0_6) outside it; pass afterId = -1 to start at startDate.
+    @Query("select " + VIEW + """
+             from Income i
+            where i.date >= :startDate and i.date <= :endDate and (i.date > :startDate or i.id > :afterId)
+            order by i.date, i.id
+            """)
+    List<IncomeView> findPage(@Param("startDate") LocalDate startDate,
+                              @Param("endDate") LocalDate endDate,
+                              @Param("afterId") Long afterId,
+                              Limit limit);
+
+    // Ranked description search, paged after the (rank, date, id) of the last row; see OutputRepository
+    @Query("""
+            select new com.xpense.xpensedemo.dto.IncomeView(m.id, m.amount, m.description, m.date, m.createdAt,
+                       m.version)
+              from (select i.id as id, i.amount as amount, i.description as description, i.date as date,
+                           i.createdAt as createdAt, i.version as version,
+                           case when lower(i.description) = :exact then 0
+                                when lower(i.description) like :prefix escape '\\' then 1
+                                when lower(i.description) like :wordStart escape '\\' then 2
+                                else 3 end as tier
+                      from Income i
+                     where lower(i.description) like :contains escape '\\') m
+             where m.tier > :afterRank
+                or (m.tier = :afterRank and (m.date < :afterDate or (m.date = :afterDate and m.id < :afterId)))
+             order by m.tier, m.date desc, m.id desc
+             limit :limit
+            """)
+    List<IncomeView> search(@Param("exact") String exact,
+                            @Param("prefix") String prefix,
+                            @Param("wordStart") String wordStart,
+                            @Param("contains") String contains,
+                            @Param("afterRank") int afterRank,
+                            @Param("afterDate") LocalDate afterDate,
+                            @Param("afterId") long afterId,
+                            @Param("limit") int limit);
+
+    // Server-side cursor for exports: rows are fetched in chunks straight into views
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select " + VIEW + " from Income i order by i.date, i.id")
+    Stream<IncomeView> streamAllOrderByDateAndId();
 }
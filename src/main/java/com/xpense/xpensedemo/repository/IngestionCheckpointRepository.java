@@ -0,0 +1,7 @@
+package com.xpense.xpensedemo.repository;
+
+import com.xpense.xpensedemo.model.ingestion.IngestionCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface IngestionCheckpointRepository extends JpaRepository<IngestionCheckpoint, String> {
+}
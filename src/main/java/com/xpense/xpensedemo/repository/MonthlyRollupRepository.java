@@ -0,0 +1,21 @@
+package com.xpense.xpensedemo.repository;
+
+import com.xpense.xpensedemo.model.summary.MonthlyRollup;
+import com.xpense.xpensedemo.model.summary.MonthlyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface MonthlyRollupRepository extends JpaRepository<MonthlyRollup, MonthlyRollupId>, MonthlyRollupUpsert {
+
+    // Constructor expression: rows are not attached to the persistence context, so totals bumped by
+    // addAll() earlier in the same transaction are never shadowed by stale managed instances
+    @Query("""
+            select new com.xpense.xpensedemo.model.summary.MonthlyRollup(r.id, r.total, r.count)
+            from MonthlyRollup r where r.id.monthStart between :from and :to order by r.id.monthStart
+            """)
+    List<MonthlyRollup> findByMonthRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
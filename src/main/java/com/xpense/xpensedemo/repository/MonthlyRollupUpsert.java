@@ -0,0 +1,17 @@
+package com.xpense.xpensedemo.repository;
+
+import com.xpense.xpensedemo.model.summary.MonthlyRollup;
+
+import java.util.List;
+
+/**
+ * Adds to rollup rows, creating the ones that do not exist yet, without a read-then-insert race:
+ * two transactions adding the first row of a month both succeed instead of one failing on the key.
+ */
+public interface MonthlyRollupUpsert {
+
+    /**
+     * @param deltas amounts and counts to add, in key order so concurrent writers lock rows alike
+     */
+    void addAll(List<MonthlyRollup> deltas);
+}
@@ -0,0 +1,90 @@
+package com.xpense.xpensedemo.repository;
+
+import com.xpense.xpensedemo.model.summary.MonthlyRollup;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Runs on the JDBC connection of the surrounding transaction. MonthlyRollup is not cached and
+ * rollups are read through constructor expressions, so Hibernate holds nothing to invalidate.
+ */
+class MonthlyRollupUpsertImpl implements MonthlyRollupUpsert {
+
+    private static final String POSTGRES_UPSERT = """
+            insert into monthly_rollup (month_start, kind, category_id, total, tx_count)
+            values (?, ?, ?, ?, ?)
+            on conflict (month_start, kind, category_id) do update
+            set total = monthly_rollup.total + excluded.total, tx_count = monthly_rollup.tx_count + excluded.tx_count
+            """;
+    private static final String H2_MERGE = """
+            merge into monthly_rollup r
+            using (values (cast(? as date), cast(? as varchar(16)), cast(? as bigint),
+                           cast(? as double precision), cast(? as bigint)))
+                  as v(month_start, kind, category_id, total, tx_count)
+               on r.month_start = v.month_start and r.kind = v.kind and r.category_id = v.category_id
+             when matched then update set total = r.total + v.total, tx_count = r.tx_count + v.tx_count
+             when not matched then insert (month_start, kind, category_id, total, tx_count)
+                  values (v.month_start, v.kind, v.category_id, v.total, v.tx_count)
+            """;
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final JdbcTemplate jdbcTemplate;
+    private Boolean postgres;
+
+    MonthlyRollupUpsertImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addAll(List<MonthlyRollup> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (postgres == null) {
+                postgres = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+            }
+            try (PreparedStatement statement = connection.prepareStatement(postgres ? POSTGRES_UPSERT : H2_MERGE)) {
+                if (postgres) {
+                    for (MonthlyRollup delta : deltas) {
+                        bind(statement, delta);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                } else {
+                    for (MonthlyRollup delta : deltas) {
+                        bind(statement, delta);
+                        mergeOnH2(statement);
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    // H2's MERGE does not see a row another transaction inserted meanwhile and fails on the key
+    // once that one commits. A failed statement leaves an H2 transaction usable, so merge again.
+    private static void mergeOnH2(PreparedStatement statement) throws SQLException {
+        try {
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                throw e;
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    private static void bind(PreparedStatement statement, MonthlyRollup delta) throws SQLException {
+        statement.setDate(1, Date.valueOf(delta.getId().getMonthStart()));
+        statement.setString(2, delta.getId().getKind().name());
+        statement.setLong(3, delta.getId().getCategoryId());
+        statement.setDouble(4, delta.getTotal());
+        statement.setLong(5, delta.getCount());
+    }
+}
@@ -1,7 +1,173 @@
 package com.xpense.xpensedemo.repository;
 
+import com.xpense.xpensedemo.dto.DailyTotal;
+import com.xpense.xpensedemo.dto.OutputView;
+import com.xpense.xpensedemo.dto.RowVersion;
+import com.xpense.xpensedemo.model.category.Category;
 import com.xpense.xpensedemo.model.transaction.Output;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface OutputRepository extends JpaRepository<Output, Long> {
+
+    String VIEW = "new com.xpense.xpensedemo.dto.OutputView(o.id, o.amount, o.description, o.date, o.createdAt, o.version, c.id, c.name)";
+
+    @Query("select " + VIEW + " from Output o left join o.category c where o.id = :id")
+    Optional<OutputView> findViewById(@Param("id") Long id);
+
+    // Replaces the row only if it is still at the given version, and bumps the version; returns 0
+    // when another writer changed it first. One statement instead of a select, a merge and an update.
+    @Modifying
+    @Query("""
+            update Output o
+               set o.amount = :amount, o.description = :description, o.date = :date, o.category = :category,
+                   o.version = o.version + 1
+             where o.id = :id and o.version = :version
+            """)
+    int updateIfVersion(@Param("id") Long id,
+                        @Param("version") long version,
+                        @Param("amount") double amount,
+                        @Param("description") String description,
+                        @Param("date") LocalDate date,
+                        @Param("category") Category category);
+
+    // Category is lazy on the entity; entity reads load it in the same select
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Output> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Optional<Output> findById(Long id);
+
+    // Bulk operations lock the rows they are about to change, so no concurrent update or delete can
+    // move them between summing them for the rollup and the bulk statement; see OutputService
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o.id from Output o where o.id in :ids")
+    List<Long> lockIds(@Param("ids") Collection<Long> ids);
+
+    // Also reads the versions, which the move bumps by one; the analytics snapshot orders changes by them
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select new com.xpense.xpensedemo.dto.RowVersion(o.id, o.version) from Output o where o.category.id = :categoryId")
+    List<RowVersion> lockCategory(@Param("categoryId") Long categoryId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select o.id from Output o
+             where o.date >= :startDate and o.date <= :endDate and (:categoryId is null or o.category.id = :categoryId)
+            """)
+    List<Long> lockIdsInRange(@Param("startDate") LocalDate startDate,
+                              @Param("endDate") LocalDate endDate,
+                              @Param("categoryId") Long categoryId);
+
+    @Query("""
+            select new com.xpense.xpensedemo.dto.DailyTotal(o.date, o.category.id, sum(o.amount), count(o))
+              from Output o where o.id in :ids group by o.date, o.category.id
+            """)
+    List<DailyTotal> sumByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            select new com.xpense.xpensedemo.dto.DailyTotal(o.date, o.category.id, sum(o.amount), count(o))
+              from Output o
+             where o.date >= :startDate and o.date <= :endDate and (:categoryId is null or o.category.id = :categoryId)
+             group by o.date, o.category.id
+            """)
+    List<DailyTotal> sumInRange(@Param("startDate") LocalDate startDate,
+                                @Param("endDate") LocalDate endDate,
+                                @Param("categoryId") Long categoryId);
+
+    @Modifying
+    @Query("delete from Output o where o.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("""
+            delete from Output o
+             where o.date >= :startDate and o.date <= :endDate and (:categoryId is null or o.category.id = :categoryId)
+            """)
+    int deleteInRange(@Param("startDate") LocalDate startDate,
+                      @Param("endDate") LocalDate endDate,
+                      @Param("categoryId") Long categoryId);
+
+    // A recategorized output counts as updated, so it also gets a new version
+    @Modifying
+    @Query("update Output o set o.category = :target, o.version = o.version + 1 where o.category = :source")
+    int recategorize(@Param("source") Category source, @Param("target") Category target);
+
+    // Keyset page on idx_output_date_id: rows after (startDate, afterId) up to endDate.
+    // The leading range on date bounds the index scan, and on PostgreSQL prunes the monthly
+    // partitions (V1_0_6) outside it; pass afterId = -1 to start at startDate.
+    @Query("select " + VIEW + """
+             from Output o left join o.category c
+            where o.date >= :startDate and o.date <= :endDate and (o.date > :startDate or o.id > :afterId)
+            order by o.date, o.id
+            """)
+    List<OutputView> findPage(@Param("startDate") LocalDate startDate,
+                              @Param("endDate") LocalDate endDate,
+                              @Param("afterId") Long afterId,
+                              Limit limit);
+
+    // Same keyset page restricted to one category, served by idx_output_category_date
+    @Query("select " + VIEW + """
+             from Output o join o.category c
+            where o.category.id = :categoryId
+              and o.date >= :startDate and o.date <= :endDate and (o.date > :startDate or o.id > :afterId)
+            order by o.date, o.id
+            """)
+    List<OutputView> findPageByCategory(@Param("categoryId") Long categoryId,
+                                        @Param("startDate") LocalDate startDate,
+                                        @Param("endDate") LocalDate endDate,
+                                        @Param("afterId") Long afterId,
+                                        Limit limit);
+
+    // Ranked description search: exact match, then prefix, then a later word starting with the
+    // term, then anywhere; newest first within a rank. Every match is ranked, on PostgreSQL found
+    // through the trigram index on lower(description) from V1_0_5, and pages continue after the
+    // (rank, date, id) of the previous page's last row, so only a page-sized top-N sort is kept and
+    // no page rereads the ones before it. Patterns come from SearchTerm.
+    @Query("""
+            select new com.xpense.xpensedemo.dto.OutputView(m.id, m.amount, m.description, m.date, m.createdAt,
+                       m.version, c.id, c.name)
+              from (select o.id as id, o.amount as amount, o.description as description, o.date as date,
+                           o.createdAt as createdAt, o.version as version, o.category.id as categoryId,
+                           case when lower(o.description) = :exact then 0
+                                when lower(o.description) like :prefix escape '\\' then 1
+                                when lower(o.description) like :wordStart escape '\\' then 2
+                                else 3 end as tier
+                      from Output o
+                     where lower(o.description) like :contains escape '\\') m
+              left join Category c on c.id = m.categoryId
+             where m.tier > :afterRank
+                or (m.tier = :afterRank and (m.date < :afterDate or (m.date = :afterDate and m.id < :afterId)))
+             order by m.tier, m.date desc, m.id desc
+             limit :limit
+            """)
+    List<OutputView> search(@Param("exact") String exact,
+                            @Param("prefix") String prefix,
+                            @Param("wordStart") String wordStart,
+                            @Param("contains") String contains,
+                            @Param("afterRank") int afterRank,
+                            @Param("afterDate") LocalDate afterDate,
+                            @Param("afterId") long afterId,
+                            @Param("limit") int limit);
+
+    // Server-side cursor for exports: rows are fetched in chunks straight into views
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select " + VIEW + " from Output o left join o.category c order by o.date, o.id")
+    Stream<OutputView> streamAllOrderByDateAndId();
 }
@@ -0,0 +1,146 @@
+package com.xpense.xpensedemo.service;
+
+import com.xpense.xpensedemo.analytics.AnalyticsQuery;
+import com.xpense.xpensedemo.analytics.GroupBy;
+import com.xpense.xpensedemo.analytics.RowBatch;
+import com.xpense.xpensedemo.analytics.TransactionColumns;
+import com.xpense.xpensedemo.dto.AnalyticsBucket;
+import com.xpense.xpensedemo.dto.DateRange;
+import com.xpense.xpensedemo.dto.IncomeView;
+import com.xpense.xpensedemo.dto.OutputView;
+import com.xpense.xpensedemo.dto.RowVersion;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.model.category.Category;
+import com.xpense.xpensedemo.model.summary.MonthlyRollupId;
+import com.xpense.xpensedemo.model.transaction.BaseTransactionEntity;
+import com.xpense.xpensedemo.repository.IncomeRepository;
+import com.xpense.xpensedemo.repository.OutputRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Ad hoc group-by analytics served from an in-memory {@link TransactionColumns} snapshot. The
+ * snapshot is read from the tables at startup and kept current by the transaction services,
+ * which report their writes here; each change is applied once its transaction commits. Writes this
+ * instance never sees, from other instances or straight into the tables, show up with the next
+ * rebuild every {@code xpense.analytics.rebuild-interval}.
+ */
+@Service
+@Timed(value = "xpense.service", histogram = true)
+public class AnalyticsService {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 1000;
+
+    private final IncomeRepository incomeRepository;
+    private final OutputRepository outputRepository;
+    private final CategoryService categoryService;
+    private final TransactionColumns columns = new TransactionColumns();
+
+    public AnalyticsService(IncomeRepository incomeRepository, OutputRepository outputRepository,
+                            CategoryService categoryService) {
+        this.incomeRepository = incomeRepository;
+        this.outputRepository = outputRepository;
+        this.categoryService = categoryService;
+    }
+
+    // Queries see an empty snapshot until the first load finishes, and the previous one during a
+    // rebuild. Reads the primary on purpose: a lagging replica could miss writes committed before
+    // beginReload, which nothing would replay
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${xpense.analytics.rebuild-cron:0 */15 * * * *}")
+    @Transactional
+    public void reload() {
+        columns.beginReload();
+
+        RowBatch incomes = new RowBatch();
+        try (Stream<IncomeView> rows = incomeRepository.streamAllOrderByDateAndId()) {
+            rows.forEach(income -> incomes.add(income.id(), income.version(), income.date(), income.amount(),
+                    income.description(), MonthlyRollupId.NO_CATEGORY));
+        }
+        RowBatch outputs = new RowBatch();
+        try (Stream<OutputView> rows = outputRepository.streamAllOrderByDateAndId()) {
+            rows.forEach(output -> outputs.add(output.id(), output.version(), output.date(), output.amount(),
+                    output.description(), output.category() == null ? MonthlyRollupId.NO_CATEGORY : output.category().id()));
+        }
+
+        columns.finishReload(Map.of(TransactionKind.INCOME, incomes, TransactionKind.OUTPUT, outputs));
+    }
+
+    public List<AnalyticsBucket> aggregate(TransactionKind kind, String groupBy, DateRange range, String categoryName,
+                                           Integer limit) {
+        GroupBy grouping = GroupBy.from(groupBy);
+        Long categoryId = null;
+        if (categoryName != null && !categoryName.isBlank()) {
+            Optional<Category> category = categoryService.getCategoryByName(categoryName);
+            if (category.isEmpty()) {
+                return List.of();
+            }
+            categoryId = category.get().getId();
+        }
+
+        int groups = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        AnalyticsQuery query = new AnalyticsQuery(kind, grouping, range, categoryId, groups);
+        return columns.aggregate(query, id -> categoryService.getCategoryById((long) id).map(Category::getName).orElse(null));
+    }
+
+    public int size(TransactionKind kind) {
+        return columns.size(kind);
+    }
+
+    /**
+     * Records created or updated transactions; an update replaces the row with the same id if it
+     * carries a higher version.
+     */
+    public void added(TransactionKind kind, Collection<? extends BaseTransactionEntity> transactions) {
+        RowBatch batch = new RowBatch();
+        for (BaseTransactionEntity transaction : transactions) {
+            batch.add(transaction.getId(), transaction.getVersion(), transaction.getDate(), transaction.getAmount(),
+                    transaction.getDescription(), SummaryService.categoryIdOf(transaction));
+        }
+        added(kind, batch);
+    }
+
+    public void added(TransactionKind kind, RowBatch batch) {
+        afterCommit(() -> columns.add(kind, batch));
+    }
+
+    public void removed(TransactionKind kind, Collection<Long> ids) {
+        List<Long> removedIds = List.copyOf(ids);
+        afterCommit(() -> columns.remove(kind, removedIds));
+    }
+
+    /**
+     * @param rows the moved transactions with their versions after the move
+     */
+    public void recategorized(TransactionKind kind, Collection<RowVersion> rows, long categoryId) {
+        List<RowVersion> moved = List.copyOf(rows);
+        afterCommit(() -> columns.recategorize(kind, moved, Math.toIntExact(categoryId)));
+    }
+
+    // A rolled-back write must never reach the snapshot
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.xpense.xpensedemo.service;
+
+import com.xpense.xpensedemo.model.category.Category;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache of categories by name and by id. Entries are only ever added from rows
+ * read out of the database; writes evict, so a rolled-back change can never leave a phantom entry.
+ *
+ * <p>A reader takes {@link #generation()} before it reads the row and passes it to
+ * {@link #put}; every eviction moves the generation on, so a row read before an eviction is
+ * never cached after it.
+ */
+public class CategoryCache {
+
+    public record Stats(long hits, long misses, int size) {
+    }
+
+    private final Map<String, Category> byName = new ConcurrentHashMap<>();
+    private final Map<Long, Category> byId = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong generation = new AtomicLong();
+
+    Optional<Category> getByName(String name) {
+        return record(byName.get(name));
+    }
+
+    Optional<Category> getById(Long id) {
+        return record(byId.get(id));
+    }
+
+    long generation() {
+        return generation.get();
+    }
+
+    void put(Category category, long readGeneration) {
+        if (generation.get() != readGeneration) {
+            return;
+        }
+        byName.put(category.getName(), category);
+        byId.put(category.getId(), category);
+        // An eviction between the check and the puts may have missed them
+        if (generation.get() != readGeneration) {
+            byName.remove(category.getName(), category);
+            byId.remove(category.getId(), category);
+        }
+    }
+
+    // Two readers can cache different instances of one row, say either side of a rename, so the
+    // other map may hold an instance the removed one does not match; entries go by id and name
+    void evict(Long id) {
+        generation.incrementAndGet();
+        byId.remove(id);
+        byName.values().removeIf(category -> id.equals(category.getId()));
+    }
+
+    void evictName(String name) {
+        generation.incrementAndGet();
+        byName.remove(name);
+        byId.values().removeIf(category -> name.equals(category.getName()));
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), byId.size());
+    }
+
+    private Optional<Category> record(Category cached) {
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return Optional.ofNullable(cached);
+    }
+}
@@ -3,42 +3,126 @@ package com.xpense.xpensedemo.service;
 import com.xpense.xpensedemo.dto.CategoryDTO;
 import com.xpense.xpensedemo.model.category.Category;
 import com.xpense.xpensedemo.repository.CategoryRepository;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
+@Timed(value = "xpense.service", histogram = true)
 public class CategoryService {
 
     private final CategoryRepository repository;
+    private final ResourceVersions resourceVersions;
+    private final CategoryCache cache = new CategoryCache();
 
-    public CategoryService(CategoryRepository repository) {
+    public CategoryService(CategoryRepository repository, ResourceVersions resourceVersions) {
         this.repository = repository;
+        this.resourceVersions = resourceVersions;
     }
 
+    // One insert that skips an existing name, so concurrent creates of the same name cannot
+    // both pass a check and then collide on the unique constraint
     @Transactional
     public Category createCategory(CategoryDTO categoryDTO) {
-        if (repository.existsByName(categoryDTO.name())) {
+        List<Category> created = repository.insertMissing(List.of(categoryDTO.name()));
+        if (created.isEmpty()) {
             throw new RuntimeException("Category with name '" + categoryDTO.name() + "' already exists");
         }
-
-        Category category = new Category();
-        category.setName(categoryDTO.name());
-        return repository.save(category);
+        evictName(categoryDTO.name());
+        resourceVersions.bump(ResourceVersions.Resource.CATEGORIES);
+        return created.get(0);
     }
 
+    @Transactional(readOnly = true)
     public List<Category> getAllCategories() {
         return repository.findAll();
     }
 
     public Optional<Category> getCategoryById(Long id) {
-        return repository.findById(id);
+        Optional<Category> cached = cache.getById(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long generation = cache.generation();
+        Optional<Category> category = repository.findById(id);
+        category.ifPresent(found -> remember(found, generation));
+        return category;
     }
 
     public Optional<Category> getCategoryByName(String name) {
-        return repository.findByName(name);
+        Optional<Category> cached = cache.getByName(name);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long generation = cache.generation();
+        Optional<Category> category = repository.findByName(name);
+        category.ifPresent(found -> remember(found, generation));
+        return category;
+    }
+
+    /**
+     * Resolves many names at once: cached names cost nothing, the rest share a single query.
+     * Unknown names are absent from the result.
+     */
+    public Map<String, Category> getCategoriesByName(Collection<String> names) {
+        Map<String, Category> found = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (String name : names) {
+            cache.getByName(name).ifPresentOrElse(category -> found.put(name, category), () -> missing.add(name));
+        }
+        if (!missing.isEmpty()) {
+            long generation = cache.generation();
+            for (Category category : repository.findByNameIn(missing)) {
+                remember(category, generation);
+                found.put(category.getName(), category);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Like {@link #getCategoriesByName}, but names that do not exist yet are created, all with one
+     * insert. Created categories are cached only once they are read after the commit.
+     */
+    @Transactional
+    public Map<String, Category> getOrCreateCategories(Collection<String> names) {
+        Map<String, Category> found = getCategoriesByName(names);
+        Set<String> missing = new HashSet<>(names);
+        missing.removeAll(found.keySet());
+        if (missing.isEmpty()) {
+            return found;
+        }
+        List<Category> created = repository.insertMissing(missing);
+        for (Category category : created) {
+            found.put(category.getName(), category);
+            missing.remove(category.getName());
+        }
+        if (!created.isEmpty()) {
+            resourceVersions.bump(ResourceVersions.Resource.CATEGORIES);
+        }
+        // Skipped names were created by a concurrent transaction, which the insert waited for
+        if (!missing.isEmpty()) {
+            long generation = cache.generation();
+            for (Category category : repository.findByNameIn(missing)) {
+                remember(category, generation);
+                found.put(category.getName(), category);
+            }
+        }
+        return found;
+    }
+
+    public CategoryCache.Stats getCacheStats() {
+        return cache.stats();
     }
 
     @Transactional
@@ -53,7 +137,11 @@ public class CategoryService {
             }
 
             category.setName(categoryDTO.name());
-            return repository.save(category);
+            Category saved = repository.save(category);
+            evictId(id);
+            evictName(categoryDTO.name());
+            resourceVersions.bump(ResourceVersions.Resource.CATEGORIES);
+            return saved;
         } else {
             throw new RuntimeException("Category not found with id: " + id);
         }
@@ -65,5 +153,37 @@ public class CategoryService {
             throw new RuntimeException("Category not found with id: " + id);
         }
         repository.deleteById(id);
+        evictId(id);
+        resourceVersions.bump(ResourceVersions.Resource.CATEGORIES);
+    }
+
+    // Cache a detached copy so later changes to the managed instance cannot leak into the cache.
+    // A row cached by the same transaction that wrote it is dropped again by the eviction below.
+    private void remember(Category category, long readGeneration) {
+        cache.put(new Category(category.getId(), category.getName()), readGeneration);
+    }
+
+    // Evict now so this transaction cannot read a stale entry, and again once it completes in case
+    // a concurrent reader re-cached the old row in between; a reader still holding the old row
+    // when the second eviction runs is turned away by the generation check
+    private void evictId(Long id) {
+        cache.evict(id);
+        afterCompletion(() -> cache.evict(id));
+    }
+
+    private void evictName(String name) {
+        cache.evictName(name);
+        afterCompletion(() -> cache.evictName(name));
+    }
+
+    private void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
     }
 }
@@ -0,0 +1,168 @@
+package com.xpense.xpensedemo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.xpense.xpensedemo.dto.IdempotentResponse;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.exception.IdempotencyKeyInProgressException;
+import com.xpense.xpensedemo.exception.IdempotencyKeyReusedException;
+import com.xpense.xpensedemo.exception.InvalidIdempotencyKeyException;
+import com.xpense.xpensedemo.model.idempotency.IdempotencyKey;
+import com.xpense.xpensedemo.model.idempotency.IdempotencyKeyId;
+import com.xpense.xpensedemo.repository.IdempotencyKeyRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Runs a create at most once per {@code Idempotency-Key}. The key is stored with a hash of the
+ * request and the response in the same transaction as the created row, so a retry either finds
+ * both or neither. Recently used keys are also held in memory, so most retries are answered
+ * without touching the database; keys are forgotten after {@code xpense.idempotency.ttl}.
+ */
+@Service
+@Timed(value = "xpense.service", histogram = true)
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    // Sorted properties and map keys, so the same request always hashes the same
+    private static final ObjectWriter CANONICAL_JSON = JsonMapper.builder()
+            .findAndAddModules()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build()
+            .writer();
+
+    private final IdempotencyKeyRepository repository;
+    private final Duration ttl;
+    private final Cache<IdempotencyKeyId, StoredResponse> recent;
+
+    public IdempotencyService(IdempotencyKeyRepository repository,
+                              @Value("${xpense.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${xpense.idempotency.cache-size:10000}") long cacheSize) {
+        this.repository = repository;
+        this.ttl = ttl;
+        // A key read back from the table may be hours old, so it is held only for what is left of its ttl
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<IdempotencyKeyId, StoredResponse>() {
+                    @Override
+                    public long expireAfterCreate(IdempotencyKeyId id, StoredResponse stored, long now) {
+                        return remaining(stored).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(IdempotencyKeyId id, StoredResponse stored, long now, long current) {
+                        return remaining(stored).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(IdempotencyKeyId id, StoredResponse stored, long now, long current) {
+                        return current;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Returns the response stored under the key if there is one, otherwise runs {@code create} and
+     * stores its response. A create that fails stores nothing, so it may be retried with the key.
+     *
+     * @param request compared, by hash, with the request that first used the key
+     */
+    @Transactional
+    public IdempotentResponse execute(TransactionKind kind, String key, Object request, Supplier<String> create) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException(MAX_KEY_LENGTH);
+        }
+        IdempotencyKeyId id = new IdempotencyKeyId(kind, key);
+        String requestHash = hash(request);
+
+        StoredResponse stored = recent.getIfPresent(id);
+        if (stored == null) {
+            stored = repository.findById(id)
+                    .map(row -> new StoredResponse(row.getRequestHash(), row.getResponseBody(), row.getCreatedAt()))
+                    .orElse(null);
+            if (stored != null) {
+                recent.put(id, stored);
+            }
+        }
+        if (stored != null) {
+            if (!stored.requestHash().equals(requestHash)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            return new IdempotentResponse(stored.body(), true);
+        }
+
+        String body = create.get();
+        LocalDateTime createdAt = LocalDateTime.now();
+        try {
+            repository.saveAndFlush(new IdempotencyKey(id, requestHash, body, createdAt));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same key got there first; rolling back undoes this create
+            throw new IdempotencyKeyInProgressException(key);
+        }
+        StoredResponse created = new StoredResponse(requestHash, body, createdAt);
+        afterCommit(() -> recent.put(id, created));
+        return new IdempotentResponse(body, false);
+    }
+
+    @Scheduled(cron = "${xpense.idempotency.purge-cron:0 15 * * * *}")
+    @Transactional
+    public int purgeExpired() {
+        return repository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+    }
+
+    private Duration remaining(StoredResponse stored) {
+        Duration age = Duration.between(stored.createdAt(), LocalDateTime.now());
+        return age.compareTo(ttl) >= 0 ? Duration.ZERO : ttl.minus(age);
+    }
+
+    // Hashes the request as the client sent it, not as toString() happens to print it
+    private static String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(CANONICAL_JSON.writeValueAsBytes(request)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Request cannot be written as JSON", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record StoredResponse(String requestHash, String body, LocalDateTime createdAt) {
+    }
+}
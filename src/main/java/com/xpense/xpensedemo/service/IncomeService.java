@@ -1,48 +1,278 @@
 package com.xpense.xpensedemo.service;
 
+import com.xpense.xpensedemo.analytics.RowBatch;
+import com.xpense.xpensedemo.dto.DailyTotal;
+import com.xpense.xpensedemo.dto.DateRange;
+import com.xpense.xpensedemo.dto.ImportReport;
 import com.xpense.xpensedemo.dto.IncomeDTO;
+import com.xpense.xpensedemo.dto.IncomePatch;
+import com.xpense.xpensedemo.dto.IncomeView;
+import com.xpense.xpensedemo.dto.KeysetCursor;
+import com.xpense.xpensedemo.dto.PageResponse;
+import com.xpense.xpensedemo.dto.SearchCursor;
+import com.xpense.xpensedemo.dto.SearchTerm;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.exception.ConcurrentChangeException;
+import com.xpense.xpensedemo.exception.InvalidTransactionException;
+import com.xpense.xpensedemo.exception.VersionConflictException;
+import com.xpense.xpensedemo.export.ExportFormat;
+import com.xpense.xpensedemo.export.ExportRow;
+import com.xpense.xpensedemo.export.TransactionExportWriter;
+import com.xpense.xpensedemo.id.TransactionIdSettings;
+import com.xpense.xpensedemo.importer.TransactionImporter;
+import com.xpense.xpensedemo.model.summary.MonthlyRollupId;
 import com.xpense.xpensedemo.model.transaction.Income;
 import com.xpense.xpensedemo.repository.IncomeRepository;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "xpense.service", histogram = true)
 public class IncomeService {
 
     IncomeRepository repository;
+    SummaryService summaryService;
+    AnalyticsService analyticsService;
+    ResourceVersions resourceVersions;
+    TransactionImporter importer;
+    TransactionIdSettings idSettings;
 
-    public IncomeService(IncomeRepository repository) {
+    public IncomeService(IncomeRepository repository, SummaryService summaryService, AnalyticsService analyticsService,
+                         ResourceVersions resourceVersions, TransactionImporter importer,
+                         TransactionIdSettings idSettings) {
         this.repository = repository;
+        this.summaryService = summaryService;
+        this.analyticsService = analyticsService;
+        this.resourceVersions = resourceVersions;
+        this.importer = importer;
+        this.idSettings = idSettings;
     }
 
     @Transactional
     public void createIncome(IncomeDTO income) {
-        repository.save(Income.fromDTO(income));
+        Income entity = Income.fromDTO(income);
+        repository.save(entity);
+        summaryService.add(TransactionKind.INCOME, List.of(entity));
+        analyticsService.added(TransactionKind.INCOME, List.of(entity));
+        resourceVersions.bump(ResourceVersions.Resource.INCOMES);
     }
 
+    @Transactional
+    public int createIncomes(List<IncomeDTO> incomes) {
+        List<Income> entities = incomes.stream().map(Income::fromDTO).toList();
+        repository.saveAll(entities);
+        summaryService.add(TransactionKind.INCOME, entities);
+        analyticsService.added(TransactionKind.INCOME, entities);
+        resourceVersions.bump(ResourceVersions.Resource.INCOMES);
+        return entities.size();
+    }
+
+    // Rolls back entirely if the upload breaks off; rejected lines are skipped and reported instead
+    @Transactional(rollbackFor = IOException.class)
+    public ImportReport importIncomes(InputStream csv) throws IOException {
+        RollupDeltas deltas = new RollupDeltas();
+        RowBatch rows = new RowBatch();
+        ImportReport report = importer.importCsv(TransactionKind.INCOME, csv, Map.of(),
+                (id, date, amount, description, categoryId) -> {
+                    deltas.add(TransactionKind.INCOME, date, categoryId, amount);
+                    rows.add(id, 0, date, amount, description, categoryId);
+                });
+        summaryService.apply(deltas);
+        analyticsService.added(TransactionKind.INCOME, rows);
+        resourceVersions.bump(ResourceVersions.Resource.INCOMES);
+        return report;
+    }
+
+    @Transactional(readOnly = true)
     public List<Income> getAllIncomes() {
         return repository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public PageResponse<IncomeView> getIncomePage(String cursor, Integer size) {
+        return getIncomePage(cursor, size, DateRange.all());
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<IncomeView> getIncomePage(String cursor, Integer size, DateRange range) {
+        int pageSize = PageResponse.clampSize(size);
+        KeysetCursor start = KeysetCursor.startOf(cursor, range);
+
+        List<IncomeView> rows = repository.findPage(start.date(), range.to(), start.id(), Limit.of(pageSize + 1));
+        return PageResponse.fromSlice(rows, pageSize, income -> new KeysetCursor(income.date(), income.id()));
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<IncomeView> searchIncomes(String query, String cursor, Integer size) {
+        SearchTerm term = SearchTerm.of(query);
+        SearchCursor start = SearchCursor.startOf(cursor);
+        int pageSize = PageResponse.clampSize(size);
+
+        List<IncomeView> rows = repository.search(term.exact(), term.prefix(), term.wordStart(), term.contains(),
+                start.rank(), start.date(), start.id(), pageSize + 1);
+        return SearchCursor.page(rows, pageSize,
+                row -> new SearchCursor(term.rank(row.description()), row.date(), row.id()));
+    }
+
+    @Transactional(readOnly = true)
+    public void exportIncomes(ExportFormat format, OutputStream out) throws IOException {
+        TransactionExportWriter writer = new TransactionExportWriter(format, false, idSettings.idsAsStrings(), out);
+        writer.writeHeader();
+        // Views never enter the persistence context, so memory stays flat for any table size
+        try (Stream<IncomeView> rows = repository.streamAllOrderByDateAndId()) {
+            Iterator<IncomeView> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                IncomeView income = iterator.next();
+                writer.write(new ExportRow(
+                        income.id(),
+                        income.date(),
+                        income.amount(),
+                        income.description(),
+                        null,
+                        income.createdAt() == null ? null : income.createdAt().toLocalDateTime()
+                ));
+            }
+        }
+        writer.flush();
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Income> getIncomeById(Long id) {
         return repository.findById(id);
     }
 
+    @Transactional(readOnly = true)
+    public Optional<IncomeView> getIncomeView(Long id) {
+        return repository.findViewById(id);
+    }
+
     @Transactional
     public void deleteIncome(Long id) {
-        repository.deleteById(id);
+        // Locks the row first, so a racing update waits for the delete instead of failing it
+        deleteIncomes(List.of(id));
+    }
+
+    /**
+     * Deletes the incomes with the given ids in one statement; ids that do not exist are ignored.
+     *
+     * @return the number of incomes deleted
+     */
+    @Transactional
+    public int deleteIncomes(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Long> locked = repository.lockIds(ids);
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        List<DailyTotal> totals = repository.sumByIds(locked);
+        return removed(locked, totals, repository.deleteByIds(locked));
+    }
+
+    /**
+     * Deletes the incomes in the range in one statement.
+     *
+     * @return the number of incomes deleted
+     */
+    @Transactional
+    public int deleteIncomes(DateRange range) {
+        List<Long> locked = repository.lockIdsInRange(range.from(), range.to());
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        List<DailyTotal> totals = repository.sumInRange(range.from(), range.to());
+        return removed(locked, totals, repository.deleteInRange(range.from(), range.to()));
+    }
+
+    // The locked rows cannot change until commit, but an income written into the range after the
+    // lock is summed or deleted without having been locked; the rollups would no longer match, so
+    // everything rolls back
+    private int removed(List<Long> locked, List<DailyTotal> totals, int deleted) {
+        long summed = totals.stream().mapToLong(DailyTotal::count).sum();
+        if (deleted != locked.size() || summed != locked.size()) {
+            throw new ConcurrentChangeException("incomes");
+        }
+        RollupDeltas deltas = new RollupDeltas();
+        for (DailyTotal total : totals) {
+            deltas.subtract(TransactionKind.INCOME, total, MonthlyRollupId.NO_CATEGORY);
+        }
+        summaryService.apply(deltas);
+        analyticsService.removed(TransactionKind.INCOME, locked);
+        resourceVersions.bump(ResourceVersions.Resource.INCOMES);
+        return deleted;
     }
 
     @Transactional
     public void updateIncome(Long id, IncomeDTO income) {
-        Optional<Income> existingIncome = repository.findById(id);
-        if (existingIncome.isPresent()) {   
-            repository.save(Income.fromDTO(income));
-        } else {
-            throw new RuntimeException("Income not found with id: " + id);
+        updateIncome(id, income, null);
+    }
+
+    /**
+     * Replaces the income with a single conditional update, so a concurrent change is reported
+     * instead of overwritten.
+     *
+     * @param expectedVersion the version the client based the change on, or null for the current one
+     * @return the income as stored, with its new version
+     */
+    @Transactional
+    public IncomeView updateIncome(Long id, IncomeDTO income, Long expectedVersion) {
+        return replace(findCurrent(id), income, expectedVersion);
+    }
+
+    @Transactional
+    public IncomeView patchIncome(Long id, IncomePatch patch, Long expectedVersion) {
+        IncomeView current = findCurrent(id);
+        return replace(current, patch.applyTo(current), expectedVersion);
+    }
+
+    // The old values are read as a view, outside the persistence context, for the rollup
+    private IncomeView findCurrent(Long id) {
+        return repository.findViewById(id).orElseThrow(() -> new RuntimeException("Income not found with id: " + id));
+    }
+
+    private IncomeView replace(IncomeView current, IncomeDTO income, Long expectedVersion) {
+        long version = expectedVersion == null ? current.version() : expectedVersion;
+        if (version != current.version()) {
+            throw new VersionConflictException("Income", current.id(), version);
+        }
+        LocalDate date = parseDate(income.date());
+
+        // Matches nothing if another request changed the row since it was read
+        if (repository.updateIfVersion(current.id(), version, income.amount(), income.description(), date) == 0) {
+            throw new VersionConflictException("Income", current.id(), version);
+        }
+
+        RollupDeltas deltas = new RollupDeltas();
+        deltas.subtract(TransactionKind.INCOME, current.date(), MonthlyRollupId.NO_CATEGORY, current.amount());
+        deltas.add(TransactionKind.INCOME, date, MonthlyRollupId.NO_CATEGORY, income.amount());
+        summaryService.apply(deltas);
+        RowBatch row = new RowBatch();
+        row.add(current.id(), version + 1, date, income.amount(), income.description(), MonthlyRollupId.NO_CATEGORY);
+        analyticsService.added(TransactionKind.INCOME, row);
+        resourceVersions.bump(ResourceVersions.Resource.INCOMES);
+        return new IncomeView(current.id(), income.amount(), income.description(), date, current.createdAt(), version + 1);
+    }
+
+    private static LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new InvalidTransactionException("Invalid date: " + date);
         }
     }
 }
@@ -1,64 +1,383 @@
 package com.xpense.xpensedemo.service;
 
+import com.xpense.xpensedemo.analytics.RowBatch;
+import com.xpense.xpensedemo.dto.DailyTotal;
+import com.xpense.xpensedemo.dto.DateRange;
+import com.xpense.xpensedemo.dto.ImportReport;
+import com.xpense.xpensedemo.dto.KeysetCursor;
 import com.xpense.xpensedemo.dto.OutputDTO;
+import com.xpense.xpensedemo.dto.OutputPatch;
+import com.xpense.xpensedemo.dto.OutputView;
+import com.xpense.xpensedemo.dto.PageResponse;
+import com.xpense.xpensedemo.dto.RowVersion;
+import com.xpense.xpensedemo.dto.SearchCursor;
+import com.xpense.xpensedemo.dto.SearchTerm;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.exception.ConcurrentChangeException;
+import com.xpense.xpensedemo.exception.InvalidTransactionException;
+import com.xpense.xpensedemo.exception.VersionConflictException;
+import com.xpense.xpensedemo.export.ExportFormat;
+import com.xpense.xpensedemo.export.ExportRow;
+import com.xpense.xpensedemo.export.TransactionExportWriter;
+import com.xpense.xpensedemo.id.TransactionIdSettings;
+import com.xpense.xpensedemo.importer.TransactionImporter;
 import com.xpense.xpensedemo.model.category.Category;
+import com.xpense.xpensedemo.model.summary.MonthlyRollupId;
 import com.xpense.xpensedemo.model.transaction.Output;
-import com.xpense.xpensedemo.repository.CategoryRepository;
 import com.xpense.xpensedemo.repository.OutputRepository;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "xpense.service", histogram = true)
 public class OutputService {
 
     private final OutputRepository repository;
-    private final CategoryRepository categoryRepository;
+    private final CategoryService categoryService;
+    private final SummaryService summaryService;
+    private final AnalyticsService analyticsService;
+    private final ResourceVersions resourceVersions;
+    private final TransactionImporter importer;
+    private final TransactionIdSettings idSettings;
+    private final boolean createMissingCategories;
 
-    public OutputService(OutputRepository repository, CategoryRepository categoryRepository) {
+    public OutputService(OutputRepository repository, CategoryService categoryService, SummaryService summaryService,
+                         AnalyticsService analyticsService, ResourceVersions resourceVersions,
+                         TransactionImporter importer, TransactionIdSettings idSettings,
+                         @Value("${xpense.categories.create-missing:false}") boolean createMissingCategories) {
         this.repository = repository;
-        this.categoryRepository = categoryRepository;
+        this.categoryService = categoryService;
+        this.summaryService = summaryService;
+        this.analyticsService = analyticsService;
+        this.resourceVersions = resourceVersions;
+        this.importer = importer;
+        this.idSettings = idSettings;
+        this.createMissingCategories = createMissingCategories;
     }
 
     @Transactional
     public void createOutput(OutputDTO outputDTO) {
         Output output = Output.fromDTO(outputDTO);
 
-        Optional<Category> category = categoryRepository.findByName(outputDTO.category());
-        category.ifPresent(output::setCategory);
+        output.setCategory(createMissingCategories
+                ? categoryService.getOrCreateCategories(Set.of(outputDTO.category())).get(outputDTO.category())
+                : requireCategory(outputDTO.category()));
 
         repository.save(output);
+        summaryService.add(TransactionKind.OUTPUT, List.of(output));
+        analyticsService.added(TransactionKind.OUTPUT, List.of(output));
+        resourceVersions.bump(ResourceVersions.Resource.OUTPUTS);
     }
 
+    @Transactional
+    public int createOutputs(List<OutputDTO> outputDTOs) {
+        // One lookup for every distinct category in the batch instead of one per row
+        Set<String> categoryNames = outputDTOs.stream().map(OutputDTO::category).collect(Collectors.toSet());
+        Map<String, Category> categories = createMissingCategories
+                ? categoryService.getOrCreateCategories(categoryNames)
+                : categoryService.getCategoriesByName(categoryNames);
+        // output.category_id is NOT NULL, so an unknown name fails the whole batch up front
+        categoryNames.stream()
+                .filter(name -> !categories.containsKey(name))
+                .sorted()
+                .findFirst()
+                .ifPresent(name -> {
+                    throw new InvalidTransactionException("Unknown category: " + name);
+                });
+
+        List<Output> outputs = outputDTOs.stream()
+                .map(outputDTO -> {
+                    Output output = Output.fromDTO(outputDTO);
+                    output.setCategory(categories.get(outputDTO.category()));
+                    return output;
+                })
+                .toList();
+        repository.saveAll(outputs);
+        summaryService.add(TransactionKind.OUTPUT, outputs);
+        analyticsService.added(TransactionKind.OUTPUT, outputs);
+        resourceVersions.bump(ResourceVersions.Resource.OUTPUTS);
+        return outputs.size();
+    }
+
+    // Rolls back entirely if the upload breaks off; rejected lines are skipped and reported instead
+    @Transactional(rollbackFor = IOException.class)
+    public ImportReport importOutputs(InputStream csv) throws IOException {
+        // Categories are few, so one read resolves every name the file can use
+        Map<String, Long> categoryIds = categoryService.getAllCategories().stream()
+                .collect(Collectors.toMap(Category::getName, Category::getId));
+        RollupDeltas deltas = new RollupDeltas();
+        RowBatch rows = new RowBatch();
+        ImportReport report = importer.importCsv(TransactionKind.OUTPUT, csv, categoryIds,
+                (id, date, amount, description, categoryId) -> {
+                    deltas.add(TransactionKind.OUTPUT, date, categoryId, amount);
+                    rows.add(id, 0, date, amount, description, categoryId);
+                });
+        summaryService.apply(deltas);
+        analyticsService.added(TransactionKind.OUTPUT, rows);
+        resourceVersions.bump(ResourceVersions.Resource.OUTPUTS);
+        return report;
+    }
+
+    @Transactional(readOnly = true)
     public List<Output> getAllOutputs() {
         return repository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public PageResponse<OutputView> getOutputPage(String cursor, Integer size) {
+        return getOutputPage(cursor, size, DateRange.all(), null);
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<OutputView> getOutputPage(String cursor, Integer size, DateRange range, String categoryName) {
+        int pageSize = PageResponse.clampSize(size);
+        KeysetCursor start = KeysetCursor.startOf(cursor, range);
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<OutputView> rows;
+        if (categoryName == null || categoryName.isBlank()) {
+            rows = repository.findPage(start.date(), range.to(), start.id(), limit);
+        } else {
+            Optional<Category> category = categoryService.getCategoryByName(categoryName);
+            if (category.isEmpty()) {
+                return new PageResponse<>(List.of(), null);
+            }
+            rows = repository.findPageByCategory(category.get().getId(), start.date(), range.to(), start.id(), limit);
+        }
+        return PageResponse.fromSlice(rows, pageSize, output -> new KeysetCursor(output.date(), output.id()));
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponse<OutputView> searchOutputs(String query, String cursor, Integer size) {
+        SearchTerm term = SearchTerm.of(query);
+        SearchCursor start = SearchCursor.startOf(cursor);
+        int pageSize = PageResponse.clampSize(size);
+
+        List<OutputView> rows = repository.search(term.exact(), term.prefix(), term.wordStart(), term.contains(),
+                start.rank(), start.date(), start.id(), pageSize + 1);
+        return SearchCursor.page(rows, pageSize,
+                row -> new SearchCursor(term.rank(row.description()), row.date(), row.id()));
+    }
+
+    @Transactional(readOnly = true)
+    public void exportOutputs(ExportFormat format, OutputStream out) throws IOException {
+        TransactionExportWriter writer = new TransactionExportWriter(format, true, idSettings.idsAsStrings(), out);
+        writer.writeHeader();
+        // Views never enter the persistence context, so memory stays flat for any table size
+        try (Stream<OutputView> rows = repository.streamAllOrderByDateAndId()) {
+            Iterator<OutputView> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                OutputView output = iterator.next();
+                writer.write(new ExportRow(
+                        output.id(),
+                        output.date(),
+                        output.amount(),
+                        output.description(),
+                        output.category() == null ? null : output.category().name(),
+                        output.createdAt() == null ? null : output.createdAt().toLocalDateTime()
+                ));
+            }
+        }
+        writer.flush();
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Output> getOutputById(Long id) {
         return repository.findById(id);
     }
 
+    @Transactional(readOnly = true)
+    public Optional<OutputView> getOutputView(Long id) {
+        return repository.findViewById(id);
+    }
+
     @Transactional
     public void updateOutput(Long id, OutputDTO outputDTO) {
-        Optional<Output> existingOutput = repository.findById(id);
-        if (existingOutput.isPresent()) {
-            Output output = Output.fromDTO(outputDTO);
-            output.setId(id);
+        updateOutput(id, outputDTO, null);
+    }
 
-            // Buscar categoria pelo nome se fornecido
-            Optional<Category> category = categoryRepository.findByName(outputDTO.category());
-            category.ifPresent(output::setCategory);
+    /**
+     * Replaces the output with a single conditional update, so a concurrent change is reported
+     * instead of overwritten.
+     *
+     * @param expectedVersion the version the client based the change on, or null for the current one
+     * @return the output as stored, with its new version
+     */
+    @Transactional
+    public OutputView updateOutput(Long id, OutputDTO outputDTO, Long expectedVersion) {
+        return replace(findCurrent(id), outputDTO, expectedVersion);
+    }
 
-            repository.save(output);
-        } else {
-            throw new RuntimeException("Output not found with id: " + id);
+    @Transactional
+    public OutputView patchOutput(Long id, OutputPatch patch, Long expectedVersion) {
+        OutputView current = findCurrent(id);
+        return replace(current, patch.applyTo(current), expectedVersion);
+    }
+
+    // The old values are read as a view, outside the persistence context, for the rollup
+    private OutputView findCurrent(Long id) {
+        return repository.findViewById(id).orElseThrow(() -> new RuntimeException("Output not found with id: " + id));
+    }
+
+    private OutputView replace(OutputView current, OutputDTO outputDTO, Long expectedVersion) {
+        long version = expectedVersion == null ? current.version() : expectedVersion;
+        if (version != current.version()) {
+            throw new VersionConflictException("Output", current.id(), version);
+        }
+        LocalDate date = parseDate(outputDTO.date());
+        Category category = categoryService.getCategoryByName(outputDTO.category())
+                .orElseThrow(() -> new InvalidTransactionException("Unknown category: " + outputDTO.category()));
+
+        // Matches nothing if another request changed the row since it was read
+        int updated = repository.updateIfVersion(current.id(), version, outputDTO.amount(), outputDTO.description(),
+                date, category);
+        if (updated == 0) {
+            throw new VersionConflictException("Output", current.id(), version);
+        }
+
+        RollupDeltas deltas = new RollupDeltas();
+        deltas.subtract(TransactionKind.OUTPUT, current.date(),
+                current.category() == null ? MonthlyRollupId.NO_CATEGORY : current.category().id(), current.amount());
+        deltas.add(TransactionKind.OUTPUT, date, category.getId(), outputDTO.amount());
+        summaryService.apply(deltas);
+        RowBatch row = new RowBatch();
+        row.add(current.id(), version + 1, date, outputDTO.amount(), outputDTO.description(), category.getId());
+        analyticsService.added(TransactionKind.OUTPUT, row);
+        resourceVersions.bump(ResourceVersions.Resource.OUTPUTS);
+        return new OutputView(current.id(), outputDTO.amount(), outputDTO.description(), date, current.createdAt(),
+                version + 1, new OutputView.CategoryRef(category.getId(), category.getName()));
+    }
+
+    private static LocalDate parseDate(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new InvalidTransactionException("Invalid date: " + date);
         }
     }
 
     @Transactional
     public void deleteOutput(Long id) {
-        repository.deleteById(id);
+        // Locks the row first, so a racing update waits for the delete instead of failing it
+        deleteOutputs(List.of(id));
+    }
+
+    /**
+     * Deletes the outputs with the given ids in one statement; ids that do not exist are ignored.
+     *
+     * @return the number of outputs deleted
+     */
+    @Transactional
+    public int deleteOutputs(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Long> locked = repository.lockIds(ids);
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        List<DailyTotal> totals = repository.sumByIds(locked);
+        return removed(locked, totals, repository.deleteByIds(locked));
+    }
+
+    /**
+     * Deletes the outputs in the range, of one category if a name is given, in one statement.
+     *
+     * @return the number of outputs deleted
+     */
+    @Transactional
+    public int deleteOutputs(DateRange range, String categoryName) {
+        Long categoryId = null;
+        if (categoryName != null && !categoryName.isBlank()) {
+            Optional<Category> category = categoryService.getCategoryByName(categoryName);
+            if (category.isEmpty()) {
+                return 0;
+            }
+            categoryId = category.get().getId();
+        }
+        List<Long> locked = repository.lockIdsInRange(range.from(), range.to(), categoryId);
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        List<DailyTotal> totals = repository.sumInRange(range.from(), range.to(), categoryId);
+        return removed(locked, totals, repository.deleteInRange(range.from(), range.to(), categoryId));
+    }
+
+    /**
+     * Moves every output of one category to another in one statement.
+     *
+     * @return the number of outputs moved
+     */
+    @Transactional
+    public int recategorizeOutputs(String sourceName, String targetName) {
+        Category source = requireCategory(sourceName);
+        Category target = requireCategory(targetName);
+        if (source.getId().equals(target.getId())) {
+            return 0;
+        }
+        List<RowVersion> locked = repository.lockCategory(source.getId());
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        List<DailyTotal> totals = repository.sumInRange(DateRange.MIN_DATE, DateRange.MAX_DATE, source.getId());
+        int moved = repository.recategorize(source, target);
+        requireUnchanged(locked, totals, moved);
+
+        RollupDeltas deltas = new RollupDeltas();
+        for (DailyTotal total : totals) {
+            deltas.subtract(TransactionKind.OUTPUT, total, source.getId());
+            deltas.add(TransactionKind.OUTPUT, total, target.getId());
+        }
+        summaryService.apply(deltas);
+        // The statement bumped every moved row's version by one
+        analyticsService.recategorized(TransactionKind.OUTPUT,
+                locked.stream().map(row -> new RowVersion(row.id(), row.version() + 1)).toList(), target.getId());
+        resourceVersions.bump(ResourceVersions.Resource.OUTPUTS);
+        return moved;
+    }
+
+    private Category requireCategory(String name) {
+        return categoryService.getCategoryByName(name)
+                .orElseThrow(() -> new InvalidTransactionException("Unknown category: " + name));
+    }
+
+    private int removed(List<Long> locked, List<DailyTotal> totals, int deleted) {
+        requireUnchanged(locked, totals, deleted);
+        RollupDeltas deltas = new RollupDeltas();
+        for (DailyTotal total : totals) {
+            deltas.subtract(TransactionKind.OUTPUT, total,
+                    total.categoryId() == null ? MonthlyRollupId.NO_CATEGORY : total.categoryId());
+        }
+        summaryService.apply(deltas);
+        analyticsService.removed(TransactionKind.OUTPUT, locked);
+        resourceVersions.bump(ResourceVersions.Resource.OUTPUTS);
+        return deleted;
+    }
+
+    // The locked rows cannot change until commit, but an output written into the range after the
+    // lock is summed or changed without having been locked; the rollups would no longer match, so
+    // everything rolls back
+    private static void requireUnchanged(List<?> locked, List<DailyTotal> totals, int changed) {
+        long summed = totals.stream().mapToLong(DailyTotal::count).sum();
+        if (changed != locked.size() || summed != locked.size()) {
+            throw new ConcurrentChangeException("outputs");
+        }
     }
 }
@@ -0,0 +1,92 @@
+package com.xpense.xpensedemo.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Change counters behind the ETags of the list and summary endpoints. Services bump a resource
+ * in the transaction that writes to it, so comparing ETags tells whether anything changed with one
+ * primary-key read instead of the full query. The counters live in the {@code resource_version}
+ * table (V1_0_11), so every instance, and a replica once it has replayed the write, agrees on them.
+ */
+@Component
+public class ResourceVersions {
+
+    public enum Resource {
+        CATEGORIES,
+        INCOMES,
+        OUTPUTS
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ResourceVersions(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Marks the resource as changed when the current transaction commits. The counter row is
+     * updated right before the commit, so it is locked only for the commit itself and becomes
+     * visible together with the data; a reader can never tag the old rows with the new version.
+     */
+    public void bump(Resource resource) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment(EnumSet.of(resource));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Resource> bumped = (Set<Resource>) TransactionSynchronizationManager.getResource(this);
+        if (bumped == null) {
+            Set<Resource> pending = EnumSet.noneOf(Resource.class);
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    increment(pending);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ResourceVersions.this);
+                }
+            });
+            bumped = pending;
+        }
+        bumped.add(resource);
+    }
+
+    /**
+     * Combined version of the given resources, the basis of a response's ETag. Read it before
+     * querying, so a write committing in between at worst costs the client one extra full response.
+     * Read-only, so with a replica it comes from the same place as the data it tags.
+     */
+    @Transactional(readOnly = true)
+    public String version(Resource... resources) {
+        Map<Resource, Long> versions = new EnumMap<>(Resource.class);
+        jdbcTemplate.query("select resource, version from resource_version",
+                row -> {
+                    versions.put(Resource.valueOf(row.getString("resource")), row.getLong("version"));
+                });
+        StringBuilder version = new StringBuilder("v");
+        for (Resource resource : resources) {
+            version.append('-').append(versions.get(resource));
+        }
+        return version.toString();
+    }
+
+    // EnumSet iterates in declaration order, so concurrent writers lock the rows in the same order
+    private void increment(Set<Resource> resources) {
+        for (Resource resource : resources) {
+            jdbcTemplate.update("update resource_version set version = version + 1 where resource = ?",
+                    resource.name());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.xpense.xpensedemo.service;
+
+import com.xpense.xpensedemo.dto.DailyTotal;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.model.summary.MonthlyRollupId;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Monthly rollup changes collected from many transactions, so a bulk write touches each rollup
+ * row once. Applied with {@link SummaryService#apply(RollupDeltas)}.
+ */
+public class RollupDeltas {
+
+    // Sorted keys give concurrent writers the same row-lock order
+    private final Map<MonthlyRollupId, Delta> deltas = new TreeMap<>();
+
+    public void add(TransactionKind kind, LocalDate date, long categoryId, double amount) {
+        record(kind, date, categoryId, amount, 1);
+    }
+
+    public void subtract(TransactionKind kind, LocalDate date, long categoryId, double amount) {
+        record(kind, date, categoryId, -amount, -1);
+    }
+
+    // Rows already summed per day, by a grouped query
+    public void add(TransactionKind kind, DailyTotal total, long categoryId) {
+        record(kind, total.date(), categoryId, total.amount(), total.count());
+    }
+
+    public void subtract(TransactionKind kind, DailyTotal total, long categoryId) {
+        record(kind, total.date(), categoryId, -total.amount(), -total.count());
+    }
+
+    public boolean isEmpty() {
+        return deltas.isEmpty();
+    }
+
+    Map<MonthlyRollupId, Delta> byKey() {
+        return deltas;
+    }
+
+    private void record(TransactionKind kind, LocalDate date, long categoryId, double total, long count) {
+        Delta delta = deltas.computeIfAbsent(new MonthlyRollupId(date.withDayOfMonth(1), kind, categoryId), k -> new Delta());
+        delta.total += total;
+        delta.count += count;
+    }
+
+    static final class Delta {
+        double total;
+        long count;
+    }
+}
@@ -0,0 +1,134 @@
+package com.xpense.xpensedemo.service;
+
+import com.xpense.xpensedemo.dto.CategoryTotalDTO;
+import com.xpense.xpensedemo.dto.MonthlySummaryDTO;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.exception.InvalidDateRangeException;
+import com.xpense.xpensedemo.model.category.Category;
+import com.xpense.xpensedemo.model.summary.MonthlyRollup;
+import com.xpense.xpensedemo.model.summary.MonthlyRollupId;
+import com.xpense.xpensedemo.model.transaction.BaseTransactionEntity;
+import com.xpense.xpensedemo.model.transaction.Output;
+import com.xpense.xpensedemo.repository.MonthlyRollupRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains the monthly rollup table alongside transaction writes and serves summaries from it,
+ * so summary reads cost O(months) regardless of how many transactions exist.
+ */
+@Service
+@Timed(value = "xpense.service", histogram = true)
+public class SummaryService {
+
+    // Ten years per request; the response holds every month of the span, empty or not
+    public static final int MAX_MONTHS = 120;
+
+    private final MonthlyRollupRepository repository;
+    private final CategoryService categoryService;
+
+    public SummaryService(MonthlyRollupRepository repository, CategoryService categoryService) {
+        this.repository = repository;
+        this.categoryService = categoryService;
+    }
+
+    @Transactional
+    public void add(TransactionKind kind, Collection<? extends BaseTransactionEntity> transactions) {
+        apply(kind, transactions, 1);
+    }
+
+    @Transactional
+    public void subtract(TransactionKind kind, Collection<? extends BaseTransactionEntity> transactions) {
+        apply(kind, transactions, -1);
+    }
+
+    @Transactional
+    public void apply(RollupDeltas deltas) {
+        List<MonthlyRollup> rows = new ArrayList<>(deltas.byKey().size());
+        deltas.byKey().forEach((key, delta) -> rows.add(new MonthlyRollup(key, delta.total, delta.count)));
+        repository.addAll(rows);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MonthlySummaryDTO> getMonthlySummary(YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new InvalidDateRangeException(from, to);
+        }
+        long months = from.until(to, ChronoUnit.MONTHS) + 1;
+        if (months > MAX_MONTHS) {
+            throw new InvalidDateRangeException("Date range spans " + months + " months, at most "
+                    + MAX_MONTHS + " are allowed");
+        }
+
+        Map<YearMonth, List<MonthlyRollup>> byMonth = new TreeMap<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            byMonth.put(month, new ArrayList<>());
+        }
+        for (MonthlyRollup rollup : repository.findByMonthRange(from.atDay(1), to.atDay(1))) {
+            byMonth.get(YearMonth.from(rollup.getId().getMonthStart())).add(rollup);
+        }
+
+        List<MonthlySummaryDTO> summaries = new ArrayList<>(byMonth.size());
+        byMonth.forEach((month, rollups) -> summaries.add(summarize(month, rollups)));
+        return summaries;
+    }
+
+    private MonthlySummaryDTO summarize(YearMonth month, List<MonthlyRollup> rollups) {
+        double income = 0;
+        long incomeCount = 0;
+        double expense = 0;
+        long expenseCount = 0;
+        List<CategoryTotalDTO> expenseByCategory = new ArrayList<>();
+
+        for (MonthlyRollup rollup : rollups) {
+            if (rollup.getId().getKind() == TransactionKind.INCOME) {
+                income += rollup.getTotal();
+                incomeCount += rollup.getCount();
+            } else {
+                expense += rollup.getTotal();
+                expenseCount += rollup.getCount();
+                if (rollup.getCount() != 0) {
+                    expenseByCategory.add(categoryTotal(rollup));
+                }
+            }
+        }
+        return new MonthlySummaryDTO(month, income, incomeCount, expense, expenseCount, income - expense, expenseByCategory);
+    }
+
+    private CategoryTotalDTO categoryTotal(MonthlyRollup rollup) {
+        long categoryId = rollup.getId().getCategoryId();
+        if (categoryId == MonthlyRollupId.NO_CATEGORY) {
+            return new CategoryTotalDTO(null, null, rollup.getTotal(), rollup.getCount());
+        }
+        String name = categoryService.getCategoryById(categoryId).map(Category::getName).orElse(null);
+        return new CategoryTotalDTO(categoryId, name, rollup.getTotal(), rollup.getCount());
+    }
+
+    private void apply(TransactionKind kind, Collection<? extends BaseTransactionEntity> transactions, int sign) {
+        RollupDeltas deltas = new RollupDeltas();
+        for (BaseTransactionEntity transaction : transactions) {
+            if (sign > 0) {
+                deltas.add(kind, transaction.getDate(), categoryIdOf(transaction), transaction.getAmount());
+            } else {
+                deltas.subtract(kind, transaction.getDate(), categoryIdOf(transaction), transaction.getAmount());
+            }
+        }
+        apply(deltas);
+    }
+
+    static long categoryIdOf(BaseTransactionEntity transaction) {
+        if (transaction instanceof Output output && output.getCategory() != null) {
+            return output.getCategory().getId();
+        }
+        return MonthlyRollupId.NO_CATEGORY;
+    }
+}
@@ -0,0 +1,6 @@
+---64-BIT TRANSACTION IDS
+-- Snowflake ids (xpense.ids.generator=snowflake) are time-ordered 64-bit values far above the
+-- INTEGER range; the sequences are 64-bit already. On PostgreSQL the change reaches every monthly
+-- partition and rewrites them, so run it in a quiet period on large tables.
+ALTER TABLE output ALTER COLUMN id TYPE BIGINT;
+ALTER TABLE income ALTER COLUMN id TYPE BIGINT;
@@ -0,0 +1,9 @@
+---RESOURCE VERSIONS
+-- Change counter of each resource behind the ETags of the list and summary endpoints, bumped in
+-- the transaction of every write so all instances and replicas agree on it
+CREATE TABLE IF NOT EXISTS resource_version (
+    resource VARCHAR(32) NOT NULL PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT INTO resource_version (resource, version) VALUES ('CATEGORIES', 0), ('INCOMES', 0), ('OUTPUTS', 0);
@@ -0,0 +1,22 @@
+---CREATE MONTHLY ROLLUP TABLE
+-- One row per month, transaction kind and category (0 = uncategorized), maintained by the
+-- services in the same transaction as the transaction rows themselves
+CREATE TABLE IF NOT EXISTS monthly_rollup (
+    month_start DATE NOT NULL,
+    kind VARCHAR(16) NOT NULL,
+    category_id BIGINT NOT NULL DEFAULT 0,
+    total DOUBLE PRECISION NOT NULL,
+    tx_count BIGINT NOT NULL,
+    CONSTRAINT PK_MONTHLY_ROLLUP PRIMARY KEY (month_start, kind, category_id)
+);
+
+---BACKFILL FROM EXISTING TRANSACTIONS
+INSERT INTO monthly_rollup (month_start, kind, category_id, total, tx_count)
+SELECT CAST(DATE_TRUNC('month', "date") AS DATE), 'INCOME', 0, SUM(amount), COUNT(*)
+FROM income
+GROUP BY CAST(DATE_TRUNC('month', "date") AS DATE);
+
+INSERT INTO monthly_rollup (month_start, kind, category_id, total, tx_count)
+SELECT CAST(DATE_TRUNC('month', "date") AS DATE), 'OUTPUT', COALESCE(category_id, 0), SUM(amount), COUNT(*)
+FROM output
+GROUP BY CAST(DATE_TRUNC('month', "date") AS DATE), COALESCE(category_id, 0);
@@ -0,0 +1,6 @@
+---INDEXES FOR DATE-RANGE AND CATEGORY QUERIES
+-- (date, id) serves range filters and keyset pagination in the same order as the listings;
+-- (category_id, date, id) serves per-category listings without a sort step
+CREATE INDEX IF NOT EXISTS idx_output_date_id ON output ("date", id);
+CREATE INDEX IF NOT EXISTS idx_output_category_date ON output (category_id, "date", id);
+CREATE INDEX IF NOT EXISTS idx_income_date_id ON income ("date", id);
@@ -0,0 +1,7 @@
+---INGESTION CHECKPOINTS
+-- Last stored sequence of each instance's write-ahead log, updated in the same transaction as the
+-- rows it covers; see the asynchronous ingestion queue
+CREATE TABLE IF NOT EXISTS ingestion_checkpoint (
+    wal_id VARCHAR(64) NOT NULL PRIMARY KEY,
+    last_sequence BIGINT NOT NULL
+);
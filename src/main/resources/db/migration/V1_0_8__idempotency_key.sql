@@ -0,0 +1,13 @@
+---IDEMPOTENCY KEYS
+-- Idempotency-Key of every create that went through, with a hash of its request and the response
+-- it got, written in the same transaction as the created row; expired keys are purged by a job
+CREATE TABLE IF NOT EXISTS idempotency_key (
+    kind VARCHAR(16) NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    response_body VARCHAR(1000) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT PK_IDEMPOTENCY_KEY PRIMARY KEY (kind, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_key_created_at ON idempotency_key (created_at);
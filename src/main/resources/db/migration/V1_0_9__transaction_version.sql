@@ -0,0 +1,5 @@
+---VERSION COLUMNS FOR OPTIMISTIC LOCKING
+-- Bumped by every update; an update names the version it was based on and matches no row if
+-- another writer got there first. Existing and bulk-imported rows start at 0.
+ALTER TABLE output ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE income ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -2,8 +2,10 @@ package com.xpense.xpensedemo;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
 @SpringBootTest
+@ActiveProfiles("test")
 class XpensedemoApplicationTests {
 
 	@Test
@@ -0,0 +1,219 @@
+package com.xpense.xpensedemo.analytics;
+
+import com.xpense.xpensedemo.dto.AnalyticsBucket;
+import com.xpense.xpensedemo.dto.DateRange;
+import com.xpense.xpensedemo.dto.RowVersion;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionColumnsTest {
+
+    private static final IntFunction<String> CATEGORY_NAMES = id -> "Category " + id;
+
+    private TransactionColumns columns;
+
+    @BeforeEach
+    void setUp() {
+        columns = new TransactionColumns();
+        RowBatch outputs = new RowBatch();
+        // 2025-08-11 is a Monday
+        outputs.add(1, 0, LocalDate.of(2025, 8, 11), 10.50, "Lunch", 1);
+        outputs.add(2, 0, LocalDate.of(2025, 8, 12), 4.25, "Bus", 2);
+        outputs.add(3, 0, LocalDate.of(2025, 8, 18), 20.00, "Lunch", 1);
+        outputs.add(4, 0, LocalDate.of(2025, 9, 2), 7.00, "Gift", 0);
+        columns.add(TransactionKind.OUTPUT, outputs);
+    }
+
+    @Test
+    void groupsByCategory_LargestTotalFirst() {
+        // When
+        List<AnalyticsBucket> buckets = columns.aggregate(query(GroupBy.CATEGORY, DateRange.all(), null), CATEGORY_NAMES);
+
+        // Then
+        assertEquals(List.of(
+                new AnalyticsBucket("Category 1", 30.50, 2),
+                new AnalyticsBucket(null, 7.00, 1),
+                new AnalyticsBucket("Category 2", 4.25, 1)
+        ), buckets);
+    }
+
+    @Test
+    void groupsByWeekdayAndMonth_InCalendarOrder() {
+        // When
+        List<AnalyticsBucket> byWeekday = columns.aggregate(query(GroupBy.WEEKDAY, DateRange.all(), null), CATEGORY_NAMES);
+        List<AnalyticsBucket> byMonth = columns.aggregate(query(GroupBy.MONTH, DateRange.all(), null), CATEGORY_NAMES);
+
+        // Then
+        assertEquals(List.of(
+                new AnalyticsBucket("MONDAY", 30.50, 2),
+                new AnalyticsBucket("TUESDAY", 11.25, 2)
+        ), byWeekday);
+        assertEquals(List.of(
+                new AnalyticsBucket("2025-08", 34.75, 3),
+                new AnalyticsBucket("2025-09", 7.00, 1)
+        ), byMonth);
+    }
+
+    @Test
+    void filtersByDateRangeAndCategory() {
+        // Given
+        DateRange august = DateRange.of(LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 31));
+
+        // When
+        List<AnalyticsBucket> buckets = columns.aggregate(query(GroupBy.DESCRIPTION, august, 1L), CATEGORY_NAMES);
+
+        // Then
+        assertEquals(List.of(new AnalyticsBucket("Lunch", 30.50, 2)), buckets);
+    }
+
+    @Test
+    void addingAKnownIdReplacesTheRow_AndRemovalDropsIt() {
+        // Given
+        RowBatch update = new RowBatch();
+        update.add(2, 1, LocalDate.of(2025, 8, 12), 5.00, "Taxi", 2);
+
+        // When
+        columns.add(TransactionKind.OUTPUT, update);
+        columns.remove(TransactionKind.OUTPUT, List.of(1L, 99L));
+
+        // Then
+        assertEquals(3, columns.size(TransactionKind.OUTPUT));
+        assertEquals(List.of(
+                new AnalyticsBucket("Lunch", 20.00, 1),
+                new AnalyticsBucket("Gift", 7.00, 1),
+                new AnalyticsBucket("Taxi", 5.00, 1)
+        ), columns.aggregate(query(GroupBy.DESCRIPTION, DateRange.all(), null), CATEGORY_NAMES));
+    }
+
+    @Test
+    void changesApplyByVersion_WhenTheirCallbacksRunOutOfOrder() {
+        // Given two updates of row 2, the later one applied first, then a stale update of a deleted row
+        RowBatch second = new RowBatch();
+        second.add(2, 2, LocalDate.of(2025, 8, 12), 9.00, "Train", 2);
+        RowBatch first = new RowBatch();
+        first.add(2, 1, LocalDate.of(2025, 8, 12), 5.00, "Taxi", 2);
+        RowBatch staleUpdate = new RowBatch();
+        staleUpdate.add(4, 1, LocalDate.of(2025, 9, 2), 8.00, "Gift card", 0);
+
+        // When
+        columns.add(TransactionKind.OUTPUT, second);
+        columns.add(TransactionKind.OUTPUT, first);
+        columns.remove(TransactionKind.OUTPUT, List.of(4L));
+        columns.add(TransactionKind.OUTPUT, staleUpdate);
+        columns.recategorize(TransactionKind.OUTPUT, List.of(new RowVersion(2L, 1)), 7);
+
+        // Then
+        assertEquals(3, columns.size(TransactionKind.OUTPUT));
+        assertEquals(List.of(
+                new AnalyticsBucket("Lunch", 30.50, 2),
+                new AnalyticsBucket("Train", 9.00, 1)
+        ), columns.aggregate(query(GroupBy.DESCRIPTION, DateRange.all(), null), CATEGORY_NAMES));
+        assertEquals(new AnalyticsBucket("Category 2", 9.00, 1),
+                columns.aggregate(query(GroupBy.CATEGORY, DateRange.all(), 2L), CATEGORY_NAMES).get(0));
+    }
+
+    @Test
+    void compactionDropsDescriptionsNoRowUses() {
+        // Given one row updated far more often than a compaction allows for
+        TransactionColumns churn = new TransactionColumns();
+        for (int version = 0; version < 5000; version++) {
+            RowBatch update = new RowBatch();
+            update.add(1, version, LocalDate.of(2025, 8, 11), 1.00, "Note " + version, 1);
+            churn.add(TransactionKind.OUTPUT, update);
+        }
+
+        // When
+        List<AnalyticsBucket> buckets = churn.aggregate(
+                new AnalyticsQuery(TransactionKind.OUTPUT, GroupBy.DESCRIPTION, DateRange.all(), null, 10), CATEGORY_NAMES);
+
+        // Then
+        assertEquals(List.of(new AnalyticsBucket("Note 4999", 1.00, 1)), buckets);
+        assertTrue(churn.descriptionCount(TransactionKind.OUTPUT) < 2000);
+    }
+
+    @Test
+    void recategorizeMovesRowsToTheNewCategory() {
+        // When
+        columns.recategorize(TransactionKind.OUTPUT,
+                List.of(new RowVersion(1L, 1), new RowVersion(3L, 1), new RowVersion(99L, 1)), 7);
+
+        // Then
+        assertEquals(4, columns.size(TransactionKind.OUTPUT));
+        assertEquals(List.of(
+                new AnalyticsBucket("Category 7", 30.50, 2),
+                new AnalyticsBucket(null, 7.00, 1),
+                new AnalyticsBucket("Category 2", 4.25, 1)
+        ), columns.aggregate(query(GroupBy.CATEGORY, DateRange.all(), null), CATEGORY_NAMES));
+    }
+
+    @Test
+    void reloadKeepsChangesCommittedWhileReading() {
+        // Given
+        columns.beginReload();
+        RowBatch loaded = new RowBatch();
+        loaded.add(1, 0, LocalDate.of(2025, 8, 11), 10.50, "Lunch", 1);
+        loaded.add(2, 0, LocalDate.of(2025, 8, 12), 4.25, "Bus", 2);
+
+        RowBatch committedMeanwhile = new RowBatch();
+        committedMeanwhile.add(5, 0, LocalDate.of(2025, 8, 13), 1.00, "Coffee", 1);
+        columns.add(TransactionKind.OUTPUT, committedMeanwhile);
+        columns.remove(TransactionKind.OUTPUT, List.of(2L));
+
+        // When
+        columns.finishReload(Map.of(TransactionKind.OUTPUT, loaded));
+
+        // Then
+        assertEquals(2, columns.size(TransactionKind.OUTPUT));
+        assertEquals(0, columns.size(TransactionKind.INCOME));
+        assertEquals(Set.of("Lunch", "Coffee"), columns.aggregate(query(GroupBy.DESCRIPTION, DateRange.all(), null), CATEGORY_NAMES)
+                .stream().map(AnalyticsBucket::key).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void parallelScanMatchesSequentialTotals_ForManyRowsAndDistinctKeys() {
+        // Given more rows than one scan task takes and more descriptions than the dense limit
+        int rows = TransactionColumns.MIN_ROWS_PER_TASK * 4 + 123;
+        int distinctDescriptions = TransactionColumns.DENSE_KEY_LIMIT + 10;
+        TransactionColumns large = new TransactionColumns();
+        RowBatch batch = new RowBatch();
+        Map<Integer, Long> expectedCents = new HashMap<>();
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < rows; i++) {
+            int category = i % 7;
+            long cents = 100 + i % 1000;
+            batch.add(i + 1, 0, start.plusDays(i % 1500), cents / 100.0, "Item " + (i % distinctDescriptions), category);
+            expectedCents.merge(category, cents, Long::sum);
+        }
+        large.add(TransactionKind.INCOME, batch);
+
+        // When
+        List<AnalyticsBucket> byCategory = large.aggregate(
+                new AnalyticsQuery(TransactionKind.INCOME, GroupBy.CATEGORY, DateRange.all(), null, 100), CATEGORY_NAMES);
+        List<AnalyticsBucket> byDescription = large.aggregate(
+                new AnalyticsQuery(TransactionKind.INCOME, GroupBy.DESCRIPTION, DateRange.all(), null, Integer.MAX_VALUE), CATEGORY_NAMES);
+
+        // Then
+        assertEquals(7, byCategory.size());
+        for (AnalyticsBucket bucket : byCategory) {
+            int category = bucket.key() == null ? 0 : Integer.parseInt(bucket.key().substring("Category ".length()));
+            assertEquals(expectedCents.get(category) / 100.0, bucket.total(), 1e-6);
+        }
+        assertEquals(distinctDescriptions, byDescription.size());
+        assertEquals(rows, byDescription.stream().mapToLong(AnalyticsBucket::count).sum());
+    }
+
+    private static AnalyticsQuery query(GroupBy groupBy, DateRange range, Long categoryId) {
+        return new AnalyticsQuery(TransactionKind.OUTPUT, groupBy, range, categoryId, 20);
+    }
+}
@@ -0,0 +1,70 @@
+package com.xpense.xpensedemo.config;
+
+import com.xpense.xpensedemo.dto.CategoryDTO;
+import com.xpense.xpensedemo.model.category.Category;
+import com.xpense.xpensedemo.service.CategoryService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two H2 databases stand in for the primary and a replica; the test copies the schema to the
+// replica itself, where streaming replication would in production
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "xpense.datasource.replica.url=jdbc:h2:mem:replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "xpense.datasource.replica.username=sa",
+        "xpense.datasource.replica.read-your-writes=0s"
+})
+@ActiveProfiles("test")
+class ReadReplicaConfigTest {
+
+    @Autowired
+    CategoryService categoryService;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    DataSource primary;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    DataSource replica;
+
+    @BeforeEach
+    void setUp() {
+        Flyway.configure()
+                .dataSource(replica)
+                .locations("classpath:db/migration", "classpath:db/vendor/h2")
+                .load()
+                .migrate();
+        new JdbcTemplate(replica).update("merge into category (id, name) key (name) values (100, 'Replica only')");
+    }
+
+    @Test
+    void readOnlyServiceMethods_ShouldReadTheReplica() {
+        // When
+        var names = categoryService.getAllCategories().stream().map(Category::getName).toList();
+
+        // Then
+        assertTrue(names.contains("Replica only"));
+    }
+
+    @Test
+    void writes_ShouldGoToThePrimaryOnly() {
+        // When
+        categoryService.createCategory(new CategoryDTO("Primary only"));
+
+        // Then
+        String count = "select count(*) from category where name = 'Primary only'";
+        assertEquals(1, new JdbcTemplate(primary).queryForObject(count, Integer.class));
+        assertEquals(0, new JdbcTemplate(replica).queryForObject(count, Integer.class));
+    }
+}
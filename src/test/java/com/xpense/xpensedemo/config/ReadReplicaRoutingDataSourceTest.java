@@ -0,0 +1,57 @@
+package com.xpense.xpensedemo.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica = mock(DataSource.class);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica_EverythingElseThePrimary() {
+        // Given
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(primary, replica, Duration.ZERO);
+
+        // When
+        ReadReplicaRoutingDataSource.Target outsideTransaction = routing.determineCurrentLookupKey();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadReplicaRoutingDataSource.Target readOnly = routing.determineCurrentLookupKey();
+
+        // Then
+        assertEquals(ReadReplicaRoutingDataSource.Target.PRIMARY, outsideTransaction);
+        assertEquals(ReadReplicaRoutingDataSource.Target.REPLICA, readOnly);
+    }
+
+    @Test
+    void readsStayOnThePrimary_AfterThisInstanceCommitsAWrite() {
+        // Given a write transaction that goes through the router and commits
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(primary, replica, Duration.ofMinutes(1));
+        TransactionSynchronizationManager.initSynchronization();
+        assertEquals(ReadReplicaRoutingDataSource.Target.PRIMARY, routing.determineCurrentLookupKey());
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(ReadReplicaRoutingDataSource.Target.REPLICA, routing.determineCurrentLookupKey());
+
+        // When
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // Then
+        assertEquals(ReadReplicaRoutingDataSource.Target.PRIMARY, routing.determineCurrentLookupKey());
+    }
+}
@@ -0,0 +1,63 @@
+package com.xpense.xpensedemo.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against the real Tomcat connector, since compression happens there and not in MockMvc.
+ * The threshold is lowered so the small seed data qualifies.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "server.compression.min-response-size=64B")
+@ActiveProfiles("test")
+class ResponseCompressionTest {
+
+    @LocalServerPort
+    int port;
+
+    @Test
+    void listing_ShouldBeGzipped_DespiteCarryingAnETag() throws Exception {
+        // When
+        HttpResponse<byte[]> response = get("/outputs", "gzip");
+
+        // Then
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        assertTrue(response.headers().firstValue("ETag").orElseThrow().startsWith("W/"));
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            assertTrue(new String(body.readAllBytes()).contains("\"items\""));
+        }
+    }
+
+    @Test
+    void listing_ShouldBePlain_WhenClientDoesNotAcceptGzip() throws Exception {
+        // When
+        HttpResponse<byte[]> response = get("/outputs", "identity");
+
+        // Then
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+    }
+
+    private HttpResponse<byte[]> get(String path, String acceptEncoding) throws IOException, InterruptedException {
+        try (HttpClient http = HttpClient.newHttpClient()) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .header("Accept-Encoding", acceptEncoding)
+                    .GET()
+                    .build();
+            return http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.xpense.xpensedemo.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.xpense.xpensedemo.metrics.QueryCounter;
+import com.xpense.xpensedemo.repository.OutputRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class OutputControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    OutputRepository outputRepository;
+
+    @Autowired
+    QueryCounter queryCounter;
+
+    @Test
+    void createOutputs_ShouldInsertWholeBatch() throws Exception {
+        // Given
+        long before = outputRepository.count();
+        String body = """
+                [
+                  {"description": "Groceries", "category": "Food", "amount": 80.5, "date": "2025-08-01"},
+                  {"description": "Bus", "category": "Transport", "amount": 3.2, "date": "2025-08-02"},
+                  {"description": "Cinema", "category": "Entertainment", "amount": 12.0, "date": "2025-08-03"}
+                ]
+                """;
+
+        // When & Then
+        mockMvc.perform(post("/outputs/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().string("3 outputs created successfully"));
+        assertEquals(before + 3, outputRepository.count());
+    }
+
+    @Test
+    void createOutputs_ShouldRejectBatch_WhenAnyElementIsInvalid() throws Exception {
+        // Given
+        long before = outputRepository.count();
+        String body = """
+                [
+                  {"description": "Groceries", "category": "Food", "amount": 80.5, "date": "2025-08-01"},
+                  {"description": "", "category": "Food", "amount": -1, "date": "2025-08-02"}
+                ]
+                """;
+
+        // When & Then
+        mockMvc.perform(post("/outputs/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest());
+        assertEquals(before, outputRepository.count());
+    }
+
+    @Test
+    void getOutputs_ShouldSerializeViewsWithNestedCategory() throws Exception {
+        mockMvc.perform(get("/outputs").param("category", "Transport"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").isNumber())
+                .andExpect(jsonPath("$.items[0].date").value("2023-02-25"))
+                .andExpect(jsonPath("$.items[0].category.name").value("Transport"))
+                .andExpect(jsonPath("$.items[0].createdAt").exists());
+    }
+
+    @Test
+    void importOutputs_ShouldAcceptMultipartCsvAndReportCounts() throws Exception {
+        // Given
+        long before = outputRepository.count();
+        MockMultipartFile file = new MockMultipartFile("file", "statement.csv", "text/csv",
+                "date,amount,description,category\n2025-08-01,9.99,Books,Education\n2025-08-02,-1,Refund,Food\n"
+                        .getBytes(StandardCharsets.UTF_8));
+
+        // When & Then
+        mockMvc.perform(multipart("/outputs/import").file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.rejectedLines[0].line").value(3))
+                .andExpect(jsonPath("$.rowsPerSecond").isNumber());
+        assertEquals(before + 1, outputRepository.count());
+    }
+
+    @Test
+    void createOutput_ShouldAcceptValidDTO() throws Exception {
+        mockMvc.perform(post("/outputs/create").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\": \"Taxi\", \"category\": \"Transport\", \"amount\": 25, \"date\": \"2025-08-04\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void createOutput_ShouldCreateOnce_WhenRetriedWithSameIdempotencyKey() throws Exception {
+        // Given
+        long before = outputRepository.count();
+        String body = "{\"description\": \"Taxi\", \"category\": \"Transport\", \"amount\": 25, \"date\": \"2025-08-04\"}";
+        mockMvc.perform(post("/outputs/create").header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+
+        // When
+        mockMvc.perform(post("/outputs/create").header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().string("Output created successfully"));
+
+        // Then
+        assertEquals(before + 1, outputRepository.count());
+    }
+
+    @Test
+    void createOutput_ShouldRejectIdempotencyKey_ReusedForDifferentRequest() throws Exception {
+        // Given
+        mockMvc.perform(post("/outputs/create").header("Idempotency-Key", "retry-2").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\": \"Taxi\", \"category\": \"Transport\", \"amount\": 25, \"date\": \"2025-08-04\"}"))
+                .andExpect(status().isOk());
+
+        // When & Then
+        mockMvc.perform(post("/outputs/create").header("Idempotency-Key", "retry-2").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\": \"Taxi\", \"category\": \"Transport\", \"amount\": 40, \"date\": \"2025-08-04\"}"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void patchOutput_ShouldUpdateOnce_AndConflictOnStaleVersion() throws Exception {
+        // Given
+        String page = mockMvc.perform(get("/outputs").param("category", "Transport"))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode first = new ObjectMapper().readTree(page).get("items").get(0);
+        long id = first.get("id").asLong();
+        long version = first.get("version").asLong();
+
+        // When
+        mockMvc.perform(patch("/outputs/" + id).header(HttpHeaders.IF_MATCH, "\"" + version + "\"")
+                        .contentType("application/merge-patch+json").content("{\"amount\": 77}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (version + 1) + "\""));
+
+        // Then
+        mockMvc.perform(get("/outputs/" + id))
+                .andExpect(jsonPath("$.amount").value(77.0))
+                .andExpect(jsonPath("$.description").value(first.get("description").asText()))
+                .andExpect(jsonPath("$.version").value(version + 1));
+        mockMvc.perform(patch("/outputs/" + id).header(HttpHeaders.IF_MATCH, "\"" + version + "\"")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"amount\": 80}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void recategorizeOutputs_ShouldMoveEveryOutputOfTheSourceCategory() throws Exception {
+        // Given
+        long transport = outputRepository.findAll().stream()
+                .filter(output -> output.getCategory() != null && output.getCategory().getName().equals("Transport"))
+                .count();
+
+        // When
+        mockMvc.perform(post("/outputs/recategorize").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"from\": \"Transport\", \"to\": \"Education\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(transport));
+
+        // Then
+        mockMvc.perform(get("/outputs").param("category", "Transport"))
+                .andExpect(jsonPath("$.items").isEmpty());
+        mockMvc.perform(post("/outputs/recategorize").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"from\": \"Transport\", \"to\": \"Nope\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void deleteOutputs_ShouldDeleteByFilter_AndRefuseRequestsWithoutOne() throws Exception {
+        // Given
+        long food = outputRepository.findAll().stream()
+                .filter(output -> output.getCategory() != null && output.getCategory().getName().equals("Food"))
+                .count();
+
+        // When
+        mockMvc.perform(delete("/outputs").param("category", "Food"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affected").value(food));
+
+        // Then
+        mockMvc.perform(get("/outputs").param("category", "Food"))
+                .andExpect(jsonPath("$.items").isEmpty());
+        mockMvc.perform(delete("/outputs"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(delete("/outputs").param("ids", "1").param("category", "Food"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getOutputs_ShouldAnswerNotModifiedWithoutQuerying_WhenETagMatches() throws Exception {
+        // Given
+        String etag = mockMvc.perform(get("/outputs"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        // When
+        queryCounter.start();
+        mockMvc.perform(get("/outputs").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        int statements = queryCounter.stop();
+
+        // Then
+        assertEquals(0, statements);
+    }
+
+    @Test
+    void getOutputs_ShouldKeepETag_UntilAWriteCommits() throws Exception {
+        // Given
+        String etag = mockMvc.perform(get("/outputs")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When, inside this test's transaction, which never commits
+        mockMvc.perform(post("/outputs/create").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"description\": \"Taxi\", \"category\": \"Transport\", \"amount\": 25, \"date\": \"2025-08-04\"}"))
+                .andExpect(status().isOk());
+
+        // Then
+        mockMvc.perform(get("/outputs").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getOutputs_ShouldNegotiateCborAndSmile_WithTheSameFieldsAsJson() throws Exception {
+        // When
+        byte[] cbor = mockMvc.perform(get("/outputs").param("category", "Transport").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] smile = mockMvc.perform(get("/outputs").param("category", "Transport").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        for (JsonNode page : new JsonNode[]{new CBORMapper().readTree(cbor), new SmileMapper().readTree(smile)}) {
+            JsonNode first = page.get("items").get(0);
+            assertEquals("2023-02-25", first.get("date").asText());
+            assertEquals("Transport", first.get("category").get("name").asText());
+        }
+    }
+
+    @Test
+    void getOutputs_ShouldDefaultToJson_AndTagEachFormatSeparately() throws Exception {
+        // When
+        var json = mockMvc.perform(get("/outputs")).andReturn().getResponse();
+        var cbor = mockMvc.perform(get("/outputs").accept("application/cbor")).andReturn().getResponse();
+
+        // Then
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, json.getContentType());
+        assertTrue(json.getHeader(HttpHeaders.ETAG).startsWith("W/"));
+        assertNotEquals(json.getHeader(HttpHeaders.ETAG), cbor.getHeader(HttpHeaders.ETAG));
+        assertTrue(json.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+    }
+}
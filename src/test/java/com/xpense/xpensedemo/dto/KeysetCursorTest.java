@@ -0,0 +1,54 @@
+package com.xpense.xpensedemo.dto;
+
+import com.xpense.xpensedemo.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    @Test
+    void encodeAndDecode_ShouldRoundTrip() {
+        // Given
+        KeysetCursor cursor = new KeysetCursor(LocalDate.of(2025, 8, 12), 42L);
+
+        // When
+        KeysetCursor decoded = KeysetCursor.decode(cursor.encode());
+
+        // Then
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void decode_ShouldThrowInvalidCursor_WhenTokenIsGarbage() {
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode("%%%"));
+        assertThrows(InvalidCursorException.class, () -> KeysetCursor.decode("bm8tc2VwYXJhdG9y"));
+    }
+
+    @Test
+    void fromSlice_ShouldOnlyExposeCursor_WhenExtraRowWasFetched() {
+        // Given
+        KeysetCursor a = new KeysetCursor(LocalDate.of(2025, 1, 1), 1L);
+        KeysetCursor b = new KeysetCursor(LocalDate.of(2025, 1, 2), 2L);
+
+        // When
+        PageResponse<KeysetCursor> full = PageResponse.fromSlice(List.of(a, b), 1, c -> c);
+        PageResponse<KeysetCursor> last = PageResponse.fromSlice(List.of(a), 1, c -> c);
+
+        // Then
+        assertEquals(List.of(a), full.items());
+        assertEquals(a.encode(), full.nextCursor());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void clampSize_ShouldApplyDefaultAndCap() {
+        assertEquals(PageResponse.DEFAULT_PAGE_SIZE, PageResponse.clampSize(null));
+        assertEquals(PageResponse.DEFAULT_PAGE_SIZE, PageResponse.clampSize(0));
+        assertEquals(PageResponse.MAX_PAGE_SIZE, PageResponse.clampSize(10_000));
+        assertEquals(10, PageResponse.clampSize(10));
+    }
+}
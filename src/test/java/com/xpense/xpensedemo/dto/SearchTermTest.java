@@ -0,0 +1,59 @@
+package com.xpense.xpensedemo.dto;
+
+import com.xpense.xpensedemo.exception.InvalidCursorException;
+import com.xpense.xpensedemo.exception.InvalidSearchQueryException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchTermTest {
+
+    @Test
+    void of_ShouldLowerCaseAndEscapeLikeWildcards() {
+        // When
+        SearchTerm term = SearchTerm.of("  50%_Off\\ ");
+
+        // Then
+        assertEquals("50%_off\\", term.exact());
+        assertEquals("50\\%\\_off\\\\%", term.prefix());
+        assertEquals("% 50\\%\\_off\\\\%", term.wordStart());
+        assertEquals("%50\\%\\_off\\\\%", term.contains());
+    }
+
+    @Test
+    void of_ShouldRejectTermsTooShortForTrigrams() {
+        assertThrows(InvalidSearchQueryException.class, () -> SearchTerm.of(" ub "));
+        assertThrows(InvalidSearchQueryException.class, () -> SearchTerm.of(null));
+        assertThrows(InvalidSearchQueryException.class, () -> SearchTerm.of("x".repeat(SearchTerm.MAX_LENGTH + 1)));
+    }
+
+    @Test
+    void rank_ShouldMatchTheOrderOfTheSearchQueries() {
+        // Given
+        SearchTerm term = SearchTerm.of("Uber");
+
+        // When & Then
+        assertEquals(SearchTerm.EXACT, term.rank("UBER"));
+        assertEquals(SearchTerm.PREFIX, term.rank("Uber Eats"));
+        assertEquals(SearchTerm.WORD_START, term.rank("Trip with Uber"));
+        assertEquals(SearchTerm.ANYWHERE, term.rank("Suberb bakery"));
+    }
+
+    @Test
+    void searchCursor_ShouldRoundTripAndRejectGarbage() {
+        SearchCursor cursor = new SearchCursor(SearchTerm.PREFIX, LocalDate.of(2025, 8, 1), 42L);
+        assertEquals(cursor, SearchCursor.decode(cursor.encode()));
+        assertEquals(SearchCursor.START, SearchCursor.startOf(null));
+        assertThrows(InvalidCursorException.class, () -> SearchCursor.decode("%%%"));
+        assertThrows(InvalidCursorException.class, () -> SearchCursor.decode(new KeysetCursor(null, 1L).encode()));
+    }
+
+    @Test
+    void searchCursor_ShouldRejectRanksTheQueriesNeverProduce() {
+        assertThrows(InvalidCursorException.class,
+                () -> SearchCursor.decode(new SearchCursor(SearchTerm.ANYWHERE + 1, LocalDate.of(2025, 8, 1), 1L).encode()));
+        assertThrows(InvalidCursorException.class, () -> SearchCursor.decode(SearchCursor.START.encode()));
+    }
+}
@@ -0,0 +1,112 @@
+package com.xpense.xpensedemo.export;
+
+import com.xpense.xpensedemo.exception.UnsupportedExportFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionExportWriterTest {
+
+    private final ExportRow row = new ExportRow(
+            7L,
+            LocalDate.of(2025, 8, 12),
+            125.5,
+            "Dinner, \"with\" friends",
+            "Food",
+            LocalDateTime.of(2025, 8, 12, 20, 30)
+    );
+
+    @Test
+    void csv_ShouldWriteHeaderAndQuoteSpecialCharacters() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TransactionExportWriter writer = new TransactionExportWriter(ExportFormat.CSV, true, false, out);
+
+        // When
+        writer.writeHeader();
+        writer.write(row);
+        writer.flush();
+
+        // Then
+        assertEquals(
+                "id,date,amount,description,category,created_at\n"
+                        + "7,2025-08-12,125.5,\"Dinner, \"\"with\"\" friends\",Food,2025-08-12T20:30\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void csv_ShouldOmitCategoryColumn_ForIncomes() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TransactionExportWriter writer = new TransactionExportWriter(ExportFormat.CSV, false, false, out);
+
+        // When
+        writer.writeHeader();
+        writer.write(new ExportRow(1L, LocalDate.of(2025, 8, 1), 10.0, "Salary", null, null));
+        writer.flush();
+
+        // Then
+        assertEquals("id,date,amount,description,created_at\n1,2025-08-01,10.0,Salary,\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void ndjson_ShouldWriteOneObjectPerLine() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TransactionExportWriter writer = new TransactionExportWriter(ExportFormat.NDJSON, true, false, out);
+
+        // When
+        writer.writeHeader();
+        writer.write(row);
+        writer.write(row);
+        writer.flush();
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":7,\"date\":\"2025-08-12\""));
+        assertTrue(lines[0].contains("\"category\":\"Food\""));
+    }
+
+    @Test
+    void ndjson_ShouldFlushTheStreamOnlyOnce() throws IOException {
+        // Given
+        FlushCountingStream out = new FlushCountingStream();
+        TransactionExportWriter writer = new TransactionExportWriter(ExportFormat.NDJSON, true, false, out);
+
+        // When
+        for (int i = 0; i < 5_000; i++) {
+            writer.write(row);
+        }
+        int flushesWhileWriting = out.flushes;
+        writer.flush();
+
+        // Then
+        assertEquals(0, flushesWhileWriting);
+        assertEquals(1, out.flushes);
+        assertEquals(5_000, out.toString(StandardCharsets.UTF_8).split("\n").length);
+    }
+
+    @Test
+    void from_ShouldRejectUnknownFormat() {
+        assertEquals(ExportFormat.CSV, ExportFormat.from("CSV"));
+        assertThrows(UnsupportedExportFormatException.class, () -> ExportFormat.from("xml"));
+    }
+
+    private static class FlushCountingStream extends ByteArrayOutputStream {
+
+        int flushes;
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+}
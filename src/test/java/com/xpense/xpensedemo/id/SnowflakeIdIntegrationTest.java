@@ -0,0 +1,117 @@
+package com.xpense.xpensedemo.id;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xpense.xpensedemo.dto.IncomeDTO;
+import com.xpense.xpensedemo.dto.OutputDTO;
+import com.xpense.xpensedemo.export.ExportFormat;
+import com.xpense.xpensedemo.model.transaction.Income;
+import com.xpense.xpensedemo.model.transaction.Output;
+import com.xpense.xpensedemo.repository.IncomeRepository;
+import com.xpense.xpensedemo.repository.OutputRepository;
+import com.xpense.xpensedemo.service.IncomeService;
+import com.xpense.xpensedemo.service.OutputService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        // Own database, so the large ids do not show up in other test classes
+        "spring.datasource.url=jdbc:h2:mem:snowflake;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "xpense.ids.generator=snowflake",
+        "xpense.ids.node-id=7"
+})
+@ActiveProfiles("test")
+@Transactional
+class SnowflakeIdIntegrationTest {
+
+    @Autowired
+    OutputService outputService;
+
+    @Autowired
+    IncomeService incomeService;
+
+    @Autowired
+    OutputRepository outputRepository;
+
+    @Autowired
+    IncomeRepository incomeRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    void createdTransactions_ShouldGetSnowflakeIdsOfThisNode() {
+        // Given
+        List<OutputDTO> outputs = List.of(
+                new OutputDTO("Bus ticket", "Transport", 2.5, "2025-08-01"),
+                new OutputDTO("Lunch", "Food", 11.0, "2025-08-01"));
+
+        // When
+        outputService.createOutputs(outputs);
+        incomeService.createIncome(new IncomeDTO("Bonus", null, 300.0, "2025-08-01"));
+
+        // Then
+        List<Long> outputIds = outputRepository.findAll().stream()
+                .filter(output -> output.getDescription().equals("Bus ticket") || output.getDescription().equals("Lunch"))
+                .map(Output::getId)
+                .toList();
+        Income bonus = incomeRepository.findAll().stream()
+                .filter(income -> income.getDescription().equals("Bonus"))
+                .findFirst().orElseThrow();
+        assertEquals(2, outputIds.size());
+        outputIds.forEach(id -> assertEquals(7, SnowflakeIds.nodeOf(id)));
+        assertEquals(7, SnowflakeIds.nodeOf(bonus.getId()));
+        assertTrue(bonus.getId() > Integer.MAX_VALUE);
+    }
+
+    @Test
+    void importedTransactions_ShouldGetSnowflakeIdsOfThisNode() throws Exception {
+        // Given
+        String csv = "date,amount,description,category\n2025-08-02,9.99,Imported book,Education\n";
+
+        // When
+        outputService.importOutputs(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        // Then
+        Output imported = outputRepository.findAll().stream()
+                .filter(output -> output.getDescription().equals("Imported book"))
+                .findFirst().orElseThrow();
+        assertEquals(7, SnowflakeIds.nodeOf(imported.getId()));
+    }
+
+    @Test
+    void snowflakeIds_ShouldBeWrittenAsJsonStrings() throws Exception {
+        // Given
+        incomeService.createIncome(new IncomeDTO("Refund", null, 12.0, "2025-08-03"));
+        Income refund = incomeRepository.findAll().stream()
+                .filter(income -> income.getDescription().equals("Refund"))
+                .findFirst().orElseThrow();
+        ByteArrayOutputStream export = new ByteArrayOutputStream();
+
+        // When
+        JsonNode entity = objectMapper.readTree(objectMapper.writeValueAsString(refund));
+        JsonNode view = objectMapper.readTree(objectMapper.writeValueAsString(
+                incomeService.getIncomeView(refund.getId()).orElseThrow()));
+        incomeService.exportIncomes(ExportFormat.NDJSON, export);
+
+        // Then
+        String id = String.valueOf(refund.getId());
+        assertTrue(entity.get("id").isTextual());
+        assertEquals(id, entity.get("id").asText());
+        assertTrue(view.get("id").isTextual());
+        assertEquals(id, view.get("id").asText());
+        assertTrue(export.toString(StandardCharsets.UTF_8).contains("{\"id\":\"" + id + "\","));
+        // Clients may send the string back wherever an id is read
+        assertEquals(refund.getId(), objectMapper.readValue("\"" + id + "\"", Long.class));
+    }
+}
@@ -0,0 +1,74 @@
+package com.xpense.xpensedemo.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdsTest {
+
+    private static final long NOW = SnowflakeIds.EPOCH.toEpochMilli() + 86_400_000L;
+
+    @Test
+    void nextId_ShouldEncodeTimestampAndNode() {
+        // Given
+        SnowflakeIds ids = new SnowflakeIds(42, () -> NOW);
+
+        // When
+        long id = ids.nextId();
+
+        // Then
+        assertEquals(NOW, SnowflakeIds.timestampOf(id).toEpochMilli());
+        assertEquals(42, SnowflakeIds.nodeOf(id));
+    }
+
+    @Test
+    void nextId_ShouldKeepIncreasing_WhenTheClockStepsBack() {
+        // Given
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIds ids = new SnowflakeIds(1, clock::get);
+        long before = ids.nextId();
+
+        // When
+        clock.addAndGet(-5_000);
+        long after = ids.nextId();
+
+        // Then
+        assertTrue(after > before);
+    }
+
+    @Test
+    void nextId_ShouldMoveToTheNextMillisecond_WhenOneIsUsedUp() {
+        // Given a clock that never moves
+        SnowflakeIds ids = new SnowflakeIds(3, () -> NOW);
+        Set<Long> seen = new HashSet<>();
+
+        // When
+        long last = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long id = ids.nextId();
+            assertTrue(id > last);
+            seen.add(id);
+            last = id;
+        }
+
+        // Then
+        assertEquals(10_000, seen.size());
+        assertEquals(NOW + 2, SnowflakeIds.timestampOf(last).toEpochMilli());
+        assertEquals(3, SnowflakeIds.nodeOf(last));
+    }
+
+    @Test
+    void nodesShouldNeverCollide_InTheSameMillisecond() {
+        // Given
+        SnowflakeIds first = new SnowflakeIds(0, () -> NOW);
+        SnowflakeIds second = new SnowflakeIds(SnowflakeIds.MAX_NODE_ID, () -> NOW);
+
+        // When & Then
+        assertNotEquals(first.nextId(), second.nextId());
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIds(SnowflakeIds.MAX_NODE_ID + 1, () -> NOW));
+    }
+}
@@ -0,0 +1,48 @@
+package com.xpense.xpensedemo.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void next_ShouldSplitPlainFields() throws IOException {
+        // Given
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("date,amount\n2025-08-01,12.5\n"));
+
+        // When & Then
+        assertEquals(List.of("date", "amount"), reader.next());
+        assertEquals(List.of("2025-08-01", "12.5"), reader.next());
+        assertEquals(2, reader.recordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_ShouldUnquoteFieldsWithCommasQuotesAndNewlines() throws IOException {
+        // Given
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("\"a, b\",\"say \"\"hi\"\"\",\"two\nlines\"\r\nlast,,"));
+
+        // When & Then
+        assertEquals(List.of("a, b", "say \"hi\"", "two\nlines"), reader.next());
+        assertEquals(List.of("last", "", ""), reader.next());
+        assertEquals(3, reader.recordLine());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_ShouldReturnSingleEmptyFieldForBlankLine() throws IOException {
+        // Given
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("x\n\ny"));
+
+        // When & Then
+        assertEquals(List.of("x"), reader.next());
+        assertEquals(List.of(""), reader.next());
+        assertEquals(List.of("y"), reader.next());
+        assertNull(reader.next());
+    }
+}
@@ -0,0 +1,191 @@
+package com.xpense.xpensedemo.ingestion;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.repository.IncomeRepository;
+import com.xpense.xpensedemo.repository.OutputRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        // Own database, so rows stored by the worker do not show up in other test classes
+        "spring.datasource.url=jdbc:h2:mem:ingestion;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "xpense.ingestion.async.enabled=true",
+        "xpense.ingestion.async.flush-interval=20ms"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IngestionQueueIntegrationTest {
+
+    private static final String REPLAYED_ID = "replayed-before-start";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    OutputRepository outputRepository;
+
+    @Autowired
+    IncomeRepository incomeRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    // A log left behind by a previous run, holding one record that never reached the database
+    @DynamicPropertySource
+    static void writeAheadLog(DynamicPropertyRegistry registry) throws IOException {
+        Path directory = Files.createTempDirectory("ingestion-wal");
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1 << 20)) {
+            wal.recover(0);
+            wal.sync(wal.append(new IngestionRecord(wal.nextSequence(), REPLAYED_ID, TransactionKind.INCOME,
+                    "Replayed salary", null, 1800.0, "2025-08-01")));
+        }
+        registry.add("xpense.ingestion.async.wal-directory", directory::toString);
+    }
+
+    @Test
+    void createOutput_ShouldAnswerAcceptedAndStoreInTheBackground_WhenAsyncIsPreferred() throws Exception {
+        // Given
+        String body = """
+                {"description": "Queued groceries", "category": "Food", "amount": 42.0, "date": "2025-08-04"}
+                """;
+
+        // When
+        String response = mockMvc.perform(post("/outputs/create")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andReturn().getResponse().getContentAsString();
+        String trackingId = objectMapper.readTree(response).get("trackingId").asText();
+
+        // Then
+        assertEquals("STORED", awaitDone(trackingId).get("status").asText());
+        assertTrue(outputRepository.findAll().stream()
+                .anyMatch(output -> "Queued groceries".equals(output.getDescription())));
+    }
+
+    @Test
+    void createOutput_ShouldPointLocationAtTheStatus() throws Exception {
+        // Given
+        String body = """
+                {"description": "Taxi", "category": "Transport", "amount": 18.0, "date": "2025-08-05"}
+                """;
+
+        // When & Then
+        String location = mockMvc.perform(post("/outputs/create")
+                        .header("Prefer", "wait=5, respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+        assertNotNull(location);
+        mockMvc.perform(get(location)).andExpect(status().isOk());
+    }
+
+    @Test
+    void createOutput_ShouldRejectUnknownCategory_BeforeQueueing() throws Exception {
+        // Given
+        String body = """
+                {"description": "Mystery", "category": "Nope", "amount": 5.0, "date": "2025-08-04"}
+                """;
+
+        // When & Then
+        mockMvc.perform(post("/outputs/create")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createIncome_ShouldRejectInvalidDate_BeforeQueueing() throws Exception {
+        // Given
+        String body = """
+                {"description": "Salary", "amount": 100.0, "date": "2025-13-01"}
+                """;
+
+        // When & Then
+        mockMvc.perform(post("/incomes/create")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createOutput_ShouldStaySynchronous_WithoutPreferHeader() throws Exception {
+        // Given
+        String body = """
+                {"description": "Lunch", "category": "Food", "amount": 9.0, "date": "2025-08-04"}
+                """;
+
+        // When & Then
+        mockMvc.perform(post("/outputs/create").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Output created successfully"));
+    }
+
+    @Test
+    void start_ShouldReplayRecordsLeftInTheLog() throws Exception {
+        // When
+        JsonNode receipt = awaitDone(REPLAYED_ID);
+
+        // Then
+        assertEquals("STORED", receipt.get("status").asText());
+        assertTrue(incomeRepository.findAll().stream()
+                .anyMatch(income -> "Replayed salary".equals(income.getDescription())));
+    }
+
+    @Test
+    void getStatus_ShouldAnswerNotFound_ForUnknownTrackingId() throws Exception {
+        mockMvc.perform(get("/ingestion/unknown")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void queue_ShouldExposeDepthGauge() {
+        assertNotNull(meterRegistry.find("xpense.ingestion.queue.depth").gauge());
+        assertNotNull(meterRegistry.find("xpense.ingestion.records").tag("status", "stored").functionCounter());
+    }
+
+    private JsonNode awaitDone(String trackingId) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            String response = mockMvc.perform(get("/ingestion/" + trackingId))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode receipt = objectMapper.readTree(response);
+            if (!"QUEUED".equals(receipt.get("status").asText()) || System.currentTimeMillis() > deadline) {
+                return receipt;
+            }
+            Thread.sleep(20);
+        }
+    }
+}
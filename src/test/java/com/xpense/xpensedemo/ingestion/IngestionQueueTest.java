@@ -0,0 +1,142 @@
+package com.xpense.xpensedemo.ingestion;
+
+import com.xpense.xpensedemo.dto.IncomeDTO;
+import com.xpense.xpensedemo.dto.IngestionReceipt;
+import com.xpense.xpensedemo.enums.IngestionStatus;
+import com.xpense.xpensedemo.exception.IngestionUnavailableException;
+import com.xpense.xpensedemo.exception.InvalidTransactionException;
+import com.xpense.xpensedemo.service.CategoryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IngestionQueueTest {
+
+    @Mock
+    private IngestionWriter writer;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @TempDir
+    Path directory;
+
+    private IngestionQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        when(writer.checkpoint(anyString())).thenReturn(0L);
+        queue = new IngestionQueue(writer, categoryService, 100, 10, Duration.ofMillis(10), directory,
+                DataSize.ofBytes(64), Duration.ofSeconds(5), Duration.ofHours(1), 1000, false);
+        queue.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.stop();
+    }
+
+    @Test
+    void worker_ShouldFailOnlyTheBadRecord_WhenStoringItFailsForGood() throws InterruptedException {
+        // Given a record the services reject on every try, without a constraint violation
+        doAnswer(invocation -> {
+            List<IngestionRecord> records = invocation.getArgument(1);
+            if (records.stream().anyMatch(record -> "Bad".equals(record.description()))) {
+                throw new InvalidTransactionException("Unknown category: Gone");
+            }
+            return null;
+        }).when(writer).store(anyString(), anyList());
+
+        // When
+        IngestionReceipt good = queue.enqueueIncome(new IncomeDTO("Good", null, 1.0, "2025-08-01"));
+        IngestionReceipt bad = queue.enqueueIncome(new IncomeDTO("Bad", null, 2.0, "2025-08-01"));
+
+        // Then
+        assertEquals(IngestionStatus.STORED, awaitDone(good).status());
+        IngestionReceipt failed = awaitDone(bad);
+        assertEquals(IngestionStatus.FAILED, failed.status());
+        assertEquals("Unknown category: Gone", failed.error());
+        verify(writer).skip(anyString(), eq(2L));
+    }
+
+    @Test
+    void worker_ShouldRetry_WhenTheDatabaseIsBusy() throws InterruptedException {
+        // Given
+        doThrow(new QueryTimeoutException("Statement timed out")).doNothing().when(writer).store(anyString(), anyList());
+
+        // When
+        IngestionReceipt receipt = queue.enqueueIncome(new IncomeDTO("Salary", null, 100.0, "2025-08-01"));
+
+        // Then
+        assertEquals(IngestionStatus.STORED, awaitDone(receipt).status());
+        verify(writer, times(2)).store(anyString(), anyList());
+        verify(writer, never()).skip(anyString(), anyLong());
+    }
+
+    @Test
+    void worker_ShouldFailTheRecord_WhenTheDatabaseRefusesTheCommit() throws InterruptedException {
+        // Given
+        doThrow(new TransactionSystemException("Could not commit",
+                new SQLException("duplicate key value violates unique constraint", "23505")))
+                .when(writer).store(anyString(), anyList());
+
+        // When
+        IngestionReceipt receipt = queue.enqueueIncome(new IncomeDTO("Salary", null, 100.0, "2025-08-01"));
+
+        // Then
+        IngestionReceipt failed = awaitDone(receipt);
+        assertEquals(IngestionStatus.FAILED, failed.status());
+        assertEquals("duplicate key value violates unique constraint", failed.error());
+        verify(writer).skip(anyString(), eq(1L));
+    }
+
+    @Test
+    void health_ShouldBeDown_OnceTheLogCannotBeWritten() throws IOException {
+        // Given the segment the next record rolls over into cannot be created
+        queue.enqueueIncome(new IncomeDTO("Salary", null, 100.0, "2025-08-01"));
+        Files.createFile(directory.resolve(String.format("segment-%020d.wal", 2)));
+
+        // When
+        assertThrows(IngestionUnavailableException.class,
+                () -> queue.enqueueIncome(new IncomeDTO("Bonus", null, 50.0, "2025-08-01")));
+
+        // Then
+        assertEquals(Status.DOWN, queue.health().getStatus());
+        assertThrows(IngestionUnavailableException.class,
+                () -> queue.enqueueIncome(new IncomeDTO("Refund", null, 5.0, "2025-08-01")));
+    }
+
+    private IngestionReceipt awaitDone(IngestionReceipt receipt) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            IngestionReceipt current = queue.status(receipt.trackingId()).orElseThrow();
+            if (current.status() != IngestionStatus.QUEUED || System.currentTimeMillis() > deadline) {
+                return current;
+            }
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.xpense.xpensedemo.ingestion;
+
+import com.xpense.xpensedemo.enums.TransactionKind;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recover_ShouldReturnAppendedRecords_AfterRestart() throws IOException {
+        // Given
+        String id;
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1024)) {
+            assertTrue(wal.recover(0).isEmpty());
+            id = wal.id();
+            wal.sync(wal.append(record(wal.nextSequence(), "Groceries")));
+            wal.sync(wal.append(record(wal.nextSequence(), "Bus")));
+        }
+
+        // When
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1024)) {
+            List<IngestionRecord> recovered = wal.recover(0);
+
+            // Then
+            assertEquals(id, wal.id());
+            assertEquals(List.of(record(1, "Groceries"), record(2, "Bus")), recovered);
+            assertEquals(3, wal.nextSequence());
+        }
+    }
+
+    @Test
+    void recover_ShouldSkipRecordsUpToTheCheckpoint() throws IOException {
+        // Given
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1024)) {
+            wal.recover(0);
+            for (int i = 0; i < 3; i++) {
+                wal.sync(wal.append(record(wal.nextSequence(), "Row " + i)));
+            }
+        }
+
+        // When
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1024)) {
+            List<IngestionRecord> recovered = wal.recover(2);
+
+            // Then
+            assertEquals(List.of(record(3, "Row 2")), recovered);
+            assertEquals(4, wal.nextSequence());
+        }
+    }
+
+    @Test
+    void recover_ShouldCutOffTornLastRecord() throws IOException {
+        // Given a crash in the middle of the second record
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1024)) {
+            wal.recover(0);
+            wal.sync(wal.append(record(wal.nextSequence(), "Groceries")));
+            wal.sync(wal.append(record(wal.nextSequence(), "Bus")));
+        }
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        // When
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 1024)) {
+            List<IngestionRecord> recovered = wal.recover(0);
+
+            // Then the torn record is gone and its sequence is handed out again
+            assertEquals(List.of(record(1, "Groceries")), recovered);
+            assertEquals(2, wal.nextSequence());
+        }
+    }
+
+    @Test
+    void checkpoint_ShouldDeleteSegmentsOnceAllTheirRecordsAreStored() throws IOException {
+        try (WriteAheadLog wal = new WriteAheadLog(directory, 100)) {
+            // Given one record per segment
+            wal.recover(0);
+            for (int i = 0; i < 3; i++) {
+                wal.sync(wal.append(record(wal.nextSequence(), "A description long enough to fill a segment " + i)));
+            }
+            assertEquals(3, segments().size());
+
+            // When
+            wal.checkpoint(1);
+            int afterFirst = segments().size();
+            wal.checkpoint(3);
+
+            // Then the segment still being appended to is kept
+            assertEquals(2, afterFirst);
+            assertEquals(1, segments().size());
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".wal")).sorted().toList();
+        }
+    }
+
+    private static IngestionRecord record(long sequence, String description) {
+        return new IngestionRecord(sequence, "tracking-" + sequence, TransactionKind.OUTPUT, description, "Food",
+                12.5, "2025-08-01");
+    }
+}
@@ -0,0 +1,95 @@
+package com.xpense.xpensedemo.metrics;
+
+import com.xpense.xpensedemo.repository.OutputRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricsIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    QueryCounter counter;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    OutputRepository outputRepository;
+
+    @Autowired
+    MeterRegistry registry;
+
+    @Test
+    void prometheusEndpoint_ShouldExposeServiceRepositoryPoolAndQueryMetrics() throws Exception {
+        // Given
+        mockMvc.perform(get("/outputs").param("category", "Food")).andExpect(status().isOk());
+
+        // When
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // Then
+        assertTrue(scrape.contains("xpense_service_seconds_bucket{application=\"xpense\",class=\"com.xpense.xpensedemo.service.OutputService\""), "service timers");
+        assertTrue(scrape.contains("xpense_http_queries_statements_count{application=\"xpense\",method=\"GET\",uri=\"/outputs\""), "queries per request");
+        assertTrue(scrape.contains("spring_data_repository_invocations_seconds"), "repository timers");
+        assertTrue(scrape.contains("hikaricp_connections_active"), "connection pool");
+        assertTrue(scrape.contains("hibernate_statements_total"), "hibernate statistics");
+        assertTrue(scrape.contains("xpense_category_cache_requests_total"), "category cache");
+        assertTrue(scrape.contains("hibernate_second_level_cache_requests_total{application=\"xpense\",entityManagerFactory=\"entityManagerFactory\",region=\"category\""), "second-level cache regions");
+    }
+
+    @Test
+    void counter_ShouldCountStatementsOfEveryKind_OnlyInsideScope() {
+        // Given
+        jdbcTemplate.queryForObject("select 1", Integer.class);
+        counter.start();
+
+        // When a plain statement, a prepared one and a Hibernate query run
+        jdbcTemplate.queryForObject("select 1", Integer.class);
+        jdbcTemplate.queryForObject("select ?", Integer.class, 2);
+        outputRepository.count();
+        int counted = counter.stop();
+
+        // Then
+        assertEquals(3, counted);
+        assertEquals(0, counter.stop());
+    }
+
+    @Test
+    void queryCount_ShouldIncludeStatementsOfAStreamedExport() throws Exception {
+        // Given
+        MvcResult started = mockMvc.perform(get("/outputs/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+
+        // Then the query streaming the rows ran on the async thread and still counts
+        DistributionSummary export = registry.get("xpense.http.queries").tag("uri", "/outputs/export").summary();
+        assertEquals(1, export.count());
+        assertTrue(export.totalAmount() >= 1, "export statements");
+    }
+}
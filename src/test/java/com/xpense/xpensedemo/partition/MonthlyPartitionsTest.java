@@ -0,0 +1,54 @@
+package com.xpense.xpensedemo.partition;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MonthlyPartitionsTest {
+
+    private static final String ENSURE = "select ensure_monthly_partitions(?, ?)";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void createUpcoming_ShouldEnsurePartitionsOfBothTables_OnPostgres() {
+        // Given
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(true);
+        when(jdbcTemplate.queryForObject(ENSURE, Integer.class, "output", 6)).thenReturn(2);
+        when(jdbcTemplate.queryForObject(ENSURE, Integer.class, "income", 6)).thenReturn(1);
+        MonthlyPartitions partitions = new MonthlyPartitions(jdbcTemplate, 6);
+
+        // When
+        int created = partitions.createUpcoming();
+
+        // Then
+        assertEquals(3, created);
+    }
+
+    @Test
+    void createUpcoming_ShouldDoNothing_OnOtherDatabases() {
+        // Given
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(false);
+        MonthlyPartitions partitions = new MonthlyPartitions(jdbcTemplate, 3);
+
+        // When
+        int first = partitions.createUpcoming();
+        int second = partitions.createUpcoming();
+
+        // Then the database is only asked once what it is
+        assertEquals(0, first + second);
+        verify(jdbcTemplate, times(1)).execute(any(ConnectionCallback.class));
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Integer.class), any(Object[].class));
+    }
+}
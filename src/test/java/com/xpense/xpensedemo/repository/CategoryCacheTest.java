@@ -0,0 +1,103 @@
+package com.xpense.xpensedemo.repository;
+
+import com.xpense.xpensedemo.metrics.QueryCounter;
+import com.xpense.xpensedemo.model.category.Category;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Each repository call below runs in its own session, so anything that avoids SQL on the second
+ * call comes from the second-level or query cache rather than the persistence context.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Category second-level cache")
+class CategoryCacheTest {
+
+    @Autowired
+    CategoryRepository repository;
+
+    @Autowired
+    QueryCounter queryCounter;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAll();
+    }
+
+    @Test
+    @DisplayName("Repeated lookups by id and name should issue no SQL")
+    void repeatedLookupsHitTheCache() {
+        // Given
+        Long foodId = repository.findByName("Food").orElseThrow().getId();
+        repository.existsByName("Food");
+
+        // When
+        queryCounter.start();
+        for (int i = 0; i < 3; i++) {
+            assertEquals("Food", repository.findByName("Food").orElseThrow().getName());
+            assertTrue(repository.existsByName("Food"));
+            assertEquals("Food", repository.findById(foodId).orElseThrow().getName());
+        }
+        int statements = queryCounter.stop();
+
+        // Then
+        assertEquals(0, statements);
+        CacheRegionStatistics region = entityManagerFactory.unwrap(SessionFactory.class).getStatistics()
+                .getDomainDataRegionStatistics("category");
+        assertTrue(region.getHitCount() > 0, "entity region hits");
+    }
+
+    @Test
+    @DisplayName("A category write should invalidate cached query results")
+    void writeInvalidatesQueryResults() {
+        // Given
+        assertFalse(repository.existsByName("Gym"));
+
+        // When
+        Category gym = repository.save(new Category(null, "Gym"));
+
+        // Then
+        try {
+            assertTrue(repository.existsByName("Gym"));
+            assertEquals(gym.getId(), repository.findByName("Gym").orElseThrow().getId());
+        } finally {
+            repository.delete(gym);
+        }
+        assertFalse(repository.existsByName("Gym"));
+    }
+
+    @Test
+    @DisplayName("An upsert should create only new names and invalidate cached query results")
+    void upsertInvalidatesQueryResults() {
+        // Given
+        assertFalse(repository.existsByName("Gym"));
+
+        // When
+        List<Category> created = repository.insertMissing(List.of("Food", "Gym"));
+
+        // Then
+        try {
+            assertEquals(List.of("Gym"), created.stream().map(Category::getName).toList());
+            assertTrue(repository.existsByName("Gym"));
+            assertEquals(created.get(0).getId(), repository.findByName("Gym").orElseThrow().getId());
+            assertTrue(repository.insertMissing(List.of("Gym")).isEmpty());
+        } finally {
+            repository.deleteById(created.get(0).getId());
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.xpense.xpensedemo.repository;
+
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.model.summary.MonthlyRollup;
+import com.xpense.xpensedemo.model.summary.MonthlyRollupId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Monthly rollup upsert")
+class MonthlyRollupUpsertTest {
+
+    // Far outside any month the seeded data or other tests touch
+    private static final MonthlyRollupId KEY =
+            new MonthlyRollupId(LocalDate.of(1990, 1, 1), TransactionKind.OUTPUT, MonthlyRollupId.NO_CATEGORY);
+
+    @Autowired
+    MonthlyRollupRepository repository;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteById(KEY);
+    }
+
+    @Test
+    @DisplayName("Adding to an existing row should accumulate total and count")
+    void addsToExistingRow() {
+        // Given
+        repository.addAll(List.of(new MonthlyRollup(KEY, 10.0, 1)));
+
+        // When
+        repository.addAll(List.of(new MonthlyRollup(KEY, -4.0, -1)));
+
+        // Then
+        MonthlyRollup row = repository.findById(KEY).orElseThrow();
+        assertEquals(6.0, row.getTotal());
+        assertEquals(0, row.getCount());
+    }
+
+    @Test
+    @DisplayName("Two transactions inserting the same new month should both land")
+    void concurrentFirstInsertsBothLand() throws Exception {
+        // Given
+        CountDownLatch firstInserted = new CountDownLatch(1);
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            repository.addAll(List.of(new MonthlyRollup(KEY, 10.0, 1)));
+            firstInserted.countDown();
+            sleep(300);
+        }));
+        assertTrue(firstInserted.await(5, TimeUnit.SECONDS));
+
+        // When
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status ->
+                repository.addAll(List.of(new MonthlyRollup(KEY, 5.0, 1)))));
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        // Then
+        MonthlyRollup row = repository.findById(KEY).orElseThrow();
+        assertEquals(15.0, row.getTotal());
+        assertEquals(2, row.getCount());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
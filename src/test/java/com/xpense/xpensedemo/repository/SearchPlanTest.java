@@ -0,0 +1,110 @@
+package com.xpense.xpensedemo.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.StringJoiner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the PostgreSQL plans of the ranked description search: every match must come from the
+ * trigram index, and the ranking must keep a single page-sized top-N sort with no offset to skip.
+ * H2 has no trigram index, so this runs only against a PostgreSQL database passed in as
+ * {@code -Dxpense.test.postgres.url=jdbc:postgresql://...} (plus {@code .username} and {@code .password}).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "xpense.test.postgres.url", matches = ".+")
+@DisplayName("Description search plan on PostgreSQL")
+class SearchPlanTest {
+
+    // Same shape as the SQL Hibernate renders for OutputRepository.search / IncomeRepository.search,
+    // continuing after a cursor in the prefix rank
+    private static String rank(String alias) {
+        return "case when lower(" + alias + ".description) = 'uber' then 0"
+                + " when lower(" + alias + ".description) like 'uber%' escape '\\' then 1"
+                + " when lower(" + alias + ".description) like '% uber%' escape '\\' then 2 else 3 end";
+    }
+
+    private static final String AFTER_CURSOR = " where m.tier > 1 or (m.tier = 1 and (m.date < DATE '2025-08-01'"
+            + " or (m.date = DATE '2025-08-01' and m.id < 42))) order by m.tier, m.date desc, m.id desc"
+            + " fetch first 21 rows only";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getProperty("xpense.test.postgres.url"));
+        registry.add("spring.datasource.username", () -> System.getProperty("xpense.test.postgres.username", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getProperty("xpense.test.postgres.password", "postgres"));
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Test
+    @DisplayName("Output search should rank index-fed matches with a page-sized sort")
+    void outputSearchIsBounded() {
+        // When
+        String plan = explain("select m.id, m.amount, m.description, m.date, m.createdAt, m.version, c.id, c.name"
+                + " from (select o.id, o.amount, o.description, o.date, o.created_at, o.version, o.category_id, "
+                + rank("o") + " from output o where lower(o.description) like '%uber%' escape '\\')"
+                + " m(id, amount, description, date, createdAt, version, categoryId, tier)"
+                + " left join category c on c.id = m.categoryId" + AFTER_CURSOR);
+
+        // Then
+        assertBounded(plan);
+    }
+
+    @Test
+    @DisplayName("Income search should rank index-fed matches with a page-sized sort")
+    void incomeSearchIsBounded() {
+        // When
+        String plan = explain("select m.id, m.amount, m.description, m.date, m.createdAt, m.version"
+                + " from (select i.id, i.amount, i.description, i.date, i.created_at, i.version, "
+                + rank("i") + " from income i where lower(i.description) like '%uber%' escape '\\')"
+                + " m(id, amount, description, date, createdAt, version, tier)" + AFTER_CURSOR);
+
+        // Then
+        assertBounded(plan);
+    }
+
+    private static void assertBounded(String plan) {
+        // Every partition is read through the trigram index, never scanned whole
+        assertFalse(plan.contains("Seq Scan"), plan);
+        assertTrue(plan.contains("Index Cond: (lower((description)::text) ~~ '%uber%'::text)"), plan);
+        // A single Limit right above the ranking sort lets PostgreSQL keep only the top rows of the page
+        assertEquals(1, plan.split("Limit  \\(", -1).length - 1, plan);
+        assertTrue(plan.matches("(?s)Limit  \\(.*\\n\\s*->  Sort  \\(.*"), plan);
+    }
+
+    // With the small seed data the planner would rather scan every partition, so sequential scans
+    // are priced out to see which index the query can use at all
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set enable_seqscan = off");
+                try (ResultSet rows = statement.executeQuery("explain " + sql)) {
+                    StringJoiner plan = new StringJoiner("\n");
+                    while (rows.next()) {
+                        plan.add(rows.getString(1));
+                    }
+                    return plan.toString();
+                } finally {
+                    statement.execute("reset enable_seqscan");
+                }
+            }
+        });
+    }
+}
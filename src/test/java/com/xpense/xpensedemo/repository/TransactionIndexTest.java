@@ -0,0 +1,68 @@
+package com.xpense.xpensedemo.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the query plans of the range listings against the indexes from V1_0_4, so a change in
+ * the repository predicates that would fall back to a full scan fails the build.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Transaction index usage")
+class TransactionIndexTest {
+
+    // Same shape as the SQL Hibernate renders for the findPage / findPageByCategory queries
+    private static final String RANGE_PREDICATE =
+            "\"date\" >= DATE '2025-08-01' AND \"date\" <= DATE '2025-08-31'"
+                    + " AND (\"date\" > DATE '2025-08-01' OR id > -1)";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Output date-range page should use idx_output_date_id")
+    void outputRangeUsesDateIndex() {
+        // When
+        String plan = explain("SELECT * FROM output WHERE " + RANGE_PREDICATE + " ORDER BY \"date\", id LIMIT 51");
+
+        // Then
+        assertFalse(plan.contains("tableScan"), plan);
+        assertTrue(plan.contains("idx_output_date_id"), plan);
+    }
+
+    @Test
+    @DisplayName("Output category page should seek on a category_id index")
+    void outputCategoryRangeUsesCategoryIndex() {
+        // When
+        String plan = explain("SELECT * FROM output WHERE category_id = 1 AND " + RANGE_PREDICATE
+                + " ORDER BY \"date\", id LIMIT 51");
+
+        // Then
+        // On the tiny seed data H2 may prefer the foreign key index over idx_output_category_date;
+        // either way the lookup must be an index seek on category_id, never a table scan
+        assertFalse(plan.contains("tableScan"), plan);
+        assertTrue(plan.contains("idx_output_category_date") || plan.contains(": category_id = 1"), plan);
+    }
+
+    @Test
+    @DisplayName("Income date-range page should use idx_income_date_id")
+    void incomeRangeUsesDateIndex() {
+        // When
+        String plan = explain("SELECT * FROM income WHERE " + RANGE_PREDICATE + " ORDER BY \"date\", id LIMIT 51");
+
+        // Then
+        assertFalse(plan.contains("tableScan"), plan);
+        assertTrue(plan.contains("idx_income_date_id"), plan);
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
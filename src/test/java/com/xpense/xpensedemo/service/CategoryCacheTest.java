@@ -0,0 +1,44 @@
+package com.xpense.xpensedemo.service;
+
+import com.xpense.xpensedemo.model.category.Category;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryCacheTest {
+
+    private final CategoryCache cache = new CategoryCache();
+
+    @Test
+    void evict_ShouldDropEveryNameOfTheId_WhenReadersCachedDifferentInstances() {
+        // Given two readers caching the row either side of a rename
+        long generation = cache.generation();
+        cache.put(new Category(1L, "Food"), generation);
+        cache.put(new Category(1L, "Groceries"), generation);
+
+        // When
+        cache.evict(1L);
+
+        // Then
+        assertTrue(cache.getById(1L).isEmpty());
+        assertTrue(cache.getByName("Food").isEmpty());
+        assertTrue(cache.getByName("Groceries").isEmpty());
+    }
+
+    @Test
+    void evictName_ShouldDropTheIdOfAnyInstanceWithThatName() {
+        // Given
+        long generation = cache.generation();
+        cache.put(new Category(1L, "Food"), generation);
+        cache.put(new Category(1L, "Food"), generation);
+        cache.put(new Category(2L, "Travel"), generation);
+
+        // When
+        cache.evictName("Food");
+
+        // Then
+        assertTrue(cache.getByName("Food").isEmpty());
+        assertTrue(cache.getById(1L).isEmpty());
+        assertEquals("Travel", cache.getById(2L).orElseThrow().getName());
+    }
+}
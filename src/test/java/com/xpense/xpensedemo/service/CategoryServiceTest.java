@@ -12,7 +12,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -24,6 +26,9 @@ class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private ResourceVersions resourceVersions;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -37,24 +42,24 @@ class CategoryServiceTest {
     }
 
     @Test
-    void createCategory_ShouldSaveCategory_WhenValidDTOProvided() {
+    void createCategory_ShouldInsertCategory_WhenValidDTOProvided() {
         // Given
-        when(categoryRepository.existsByName("Food")).thenReturn(false);
-        when(categoryRepository.save(any(Category.class))).thenReturn(category);
+        when(categoryRepository.insertMissing(List.of("Food"))).thenReturn(List.of(category));
 
         // When
         Category result = categoryService.createCategory(categoryDTO);
 
-        // Then
+        // Then one statement both checks and inserts
         assertEquals("Food", result.getName());
-        verify(categoryRepository, times(1)).existsByName("Food");
-        verify(categoryRepository, times(1)).save(any(Category.class));
+        assertEquals(1L, result.getId());
+        verify(categoryRepository, never()).existsByName(any());
+        verify(categoryRepository, never()).save(any(Category.class));
     }
 
     @Test
     void createCategory_ShouldThrowException_WhenCategoryNameAlreadyExists() {
         // Given
-        when(categoryRepository.existsByName("Food")).thenReturn(true);
+        when(categoryRepository.insertMissing(List.of("Food"))).thenReturn(List.of());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
@@ -62,23 +67,37 @@ class CategoryServiceTest {
         });
 
         assertEquals("Category with name 'Food' already exists", exception.getMessage());
-        verify(categoryRepository, times(1)).existsByName("Food");
-        verify(categoryRepository, never()).save(any(Category.class));
+        verify(resourceVersions, never()).bump(any());
     }
 
     @Test
-    void createCategory_ShouldCallRepositorySaveWithCorrectData() {
+    void getOrCreateCategories_ShouldInsertOnlyUnknownNames() {
         // Given
-        when(categoryRepository.existsByName("Food")).thenReturn(false);
-        when(categoryRepository.save(any(Category.class))).thenReturn(category);
+        Category travel = new Category(6L, "Travel");
+        when(categoryRepository.findByNameIn(any())).thenReturn(List.of(category));
+        when(categoryRepository.insertMissing(Set.of("Travel"))).thenReturn(List.of(travel));
+
+        // When
+        Map<String, Category> categories = categoryService.getOrCreateCategories(Set.of("Food", "Travel"));
+
+        // Then
+        assertEquals(Map.of("Food", category, "Travel", travel), categories);
+        verify(resourceVersions).bump(ResourceVersions.Resource.CATEGORIES);
+    }
+
+    @Test
+    void getOrCreateCategories_ShouldReadNames_CreatedConcurrently() {
+        // Given the insert skips a name another transaction committed after the first lookup
+        Category travel = new Category(6L, "Travel");
+        when(categoryRepository.findByNameIn(Set.of("Travel"))).thenReturn(List.of(), List.of(travel));
+        when(categoryRepository.insertMissing(Set.of("Travel"))).thenReturn(List.of());
 
         // When
-        categoryService.createCategory(categoryDTO);
+        Map<String, Category> categories = categoryService.getOrCreateCategories(Set.of("Travel"));
 
         // Then
-        verify(categoryRepository).save(argThat(savedCategory ->
-                savedCategory.getName().equals("Food")
-        ));
+        assertEquals(travel, categories.get("Travel"));
+        verify(resourceVersions, never()).bump(any());
     }
 
     @Test
@@ -283,4 +302,92 @@ class CategoryServiceTest {
         verify(categoryRepository, times(1)).existsById(categoryId);
         verify(categoryRepository, never()).deleteById(categoryId);
     }
+
+    @Test
+    void getCategoryByName_ShouldServeRepeatedLookupsFromCache() {
+        // Given
+        when(categoryRepository.findByName("Food")).thenReturn(Optional.of(category));
+
+        // When
+        categoryService.getCategoryByName("Food");
+        Optional<Category> second = categoryService.getCategoryByName("Food");
+        Optional<Category> byId = categoryService.getCategoryById(1L);
+
+        // Then
+        assertEquals("Food", second.orElseThrow().getName());
+        assertEquals("Food", byId.orElseThrow().getName());
+        verify(categoryRepository, times(1)).findByName("Food");
+        verify(categoryRepository, never()).findById(any());
+        assertEquals(new CategoryCache.Stats(2, 1, 1), categoryService.getCacheStats());
+    }
+
+    @Test
+    void getCategoriesByName_ShouldQueryOnlyUncachedNames() {
+        // Given
+        Category transport = new Category(2L, "Transportation");
+        when(categoryRepository.findByName("Food")).thenReturn(Optional.of(category));
+        when(categoryRepository.findByNameIn(Set.of("Transportation", "Unknown"))).thenReturn(List.of(transport));
+        categoryService.getCategoryByName("Food");
+
+        // When
+        Map<String, Category> result = categoryService.getCategoriesByName(List.of("Food", "Transportation", "Unknown"));
+
+        // Then
+        assertEquals(Set.of("Food", "Transportation"), result.keySet());
+        verify(categoryRepository, times(1)).findByNameIn(Set.of("Transportation", "Unknown"));
+    }
+
+    @Test
+    void updateCategory_ShouldEvictOldNameFromCache() {
+        // Given
+        Category existingCategory = new Category(1L, "Food");
+        when(categoryRepository.findByName("Food")).thenReturn(Optional.of(existingCategory));
+        categoryService.getCategoryByName("Food");
+
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(existingCategory));
+        when(categoryRepository.findByName("Groceries")).thenReturn(Optional.empty());
+        when(categoryRepository.save(any(Category.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        categoryService.updateCategory(1L, new CategoryDTO("Groceries"));
+        categoryService.getCategoryByName("Food");
+
+        // Then
+        verify(categoryRepository, times(2)).findByName("Food");
+    }
+
+    @Test
+    void deleteCategory_ShouldEvictCategoryFromCache() {
+        // Given
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+        when(categoryRepository.existsById(1L)).thenReturn(true);
+        categoryService.getCategoryById(1L);
+
+        // When
+        categoryService.deleteCategory(1L);
+        categoryService.getCategoryById(1L);
+
+        // Then
+        verify(categoryRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void getCategoryById_ShouldNotCacheRowRead_BeforeConcurrentEviction() {
+        // Given a lookup whose read races with a delete that evicts before the row is cached
+        when(categoryRepository.existsById(1L)).thenReturn(true);
+        when(categoryRepository.findById(1L))
+                .thenAnswer(invocation -> {
+                    categoryService.deleteCategory(1L);
+                    return Optional.of(category);
+                })
+                .thenReturn(Optional.empty());
+
+        // When
+        categoryService.getCategoryById(1L);
+        Optional<Category> afterDelete = categoryService.getCategoryById(1L);
+
+        // Then
+        assertTrue(afterDelete.isEmpty());
+        verify(categoryRepository, times(2)).findById(1L);
+    }
 }
@@ -0,0 +1,181 @@
+package com.xpense.xpensedemo.service;
+
+import com.xpense.xpensedemo.dto.IdempotentResponse;
+import com.xpense.xpensedemo.dto.OutputDTO;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.exception.IdempotencyKeyInProgressException;
+import com.xpense.xpensedemo.exception.IdempotencyKeyReusedException;
+import com.xpense.xpensedemo.exception.InvalidIdempotencyKeyException;
+import com.xpense.xpensedemo.model.idempotency.IdempotencyKey;
+import com.xpense.xpensedemo.repository.IdempotencyKeyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final OutputDTO TAXI = new OutputDTO("Taxi", "Transport", 25.0, "2025-08-04");
+
+    @Mock
+    private IdempotencyKeyRepository repository;
+
+    private IdempotencyService service;
+    private final AtomicInteger creates = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        service = new IdempotencyService(repository, Duration.ofHours(24), 100);
+    }
+
+    @Test
+    void execute_ShouldReplayFromMemory_WithoutCreatingOrQueryingAgain() {
+        // Given
+        when(repository.findById(any())).thenReturn(Optional.empty());
+        IdempotentResponse first = service.execute(TransactionKind.OUTPUT, "key-1", TAXI, this::create);
+
+        // When
+        IdempotentResponse second = service.execute(TransactionKind.OUTPUT, "key-1", TAXI, this::create);
+
+        // Then
+        assertFalse(first.replayed());
+        assertTrue(second.replayed());
+        assertEquals(first.body(), second.body());
+        assertEquals(1, creates.get());
+        verify(repository, times(1)).findById(any());
+        verify(repository, times(1)).saveAndFlush(any(IdempotencyKey.class));
+    }
+
+    @Test
+    void execute_ShouldReplayStoredResponse_AfterRestart() {
+        // Given a key stored by another instance, or before a restart
+        when(repository.findById(any())).thenReturn(Optional.empty());
+        service.execute(TransactionKind.OUTPUT, "key-2", TAXI, this::create);
+        ArgumentCaptor<IdempotencyKey> stored = ArgumentCaptor.forClass(IdempotencyKey.class);
+        verify(repository).saveAndFlush(stored.capture());
+        IdempotencyService restarted = new IdempotencyService(repository, Duration.ofHours(24), 100);
+        when(repository.findById(stored.getValue().getId())).thenReturn(Optional.of(stored.getValue()));
+
+        // When
+        IdempotentResponse replay = restarted.execute(TransactionKind.OUTPUT, "key-2", TAXI, this::create);
+
+        // Then
+        assertTrue(replay.replayed());
+        assertEquals(1, creates.get());
+    }
+
+    @Test
+    void execute_ShouldHoldStoredKeysInMemory_OnlyForTheRestOfTheirTtl() {
+        // Given one key stored just now and one stored a day ago, each read back after a restart
+        when(repository.findById(any())).thenReturn(Optional.empty());
+        service.execute(TransactionKind.OUTPUT, "key-6", TAXI, this::create);
+        service.execute(TransactionKind.OUTPUT, "key-7", TAXI, this::create);
+        ArgumentCaptor<IdempotencyKey> stored = ArgumentCaptor.forClass(IdempotencyKey.class);
+        verify(repository, times(2)).saveAndFlush(stored.capture());
+        IdempotencyKey fresh = stored.getAllValues().get(0);
+        IdempotencyKey day = stored.getAllValues().get(1);
+        IdempotencyKey old = new IdempotencyKey(day.getId(), day.getRequestHash(), day.getResponseBody(),
+                LocalDateTime.now().minusHours(25));
+        when(repository.findById(fresh.getId())).thenReturn(Optional.of(fresh));
+        when(repository.findById(old.getId())).thenReturn(Optional.of(old));
+        IdempotencyService restarted = new IdempotencyService(repository, Duration.ofHours(24), 100);
+
+        // When
+        for (int i = 0; i < 2; i++) {
+            restarted.execute(TransactionKind.OUTPUT, "key-6", TAXI, this::create);
+            restarted.execute(TransactionKind.OUTPUT, "key-7", TAXI, this::create);
+        }
+
+        // Then the fresh key is read once, the expired one on every request
+        verify(repository, times(2)).findById(fresh.getId());
+        verify(repository, times(3)).findById(old.getId());
+    }
+
+    @Test
+    void execute_ShouldReplay_WhenTheSameRequestPrintsDifferently() {
+        // Given
+        when(repository.findById(any())).thenReturn(Optional.empty());
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("description", "Taxi");
+        first.put("amount", 25.0);
+        Map<String, Object> reordered = new LinkedHashMap<>();
+        reordered.put("amount", 25.0);
+        reordered.put("description", "Taxi");
+        service.execute(TransactionKind.OUTPUT, "key-8", first, this::create);
+
+        // When
+        IdempotentResponse retry = service.execute(TransactionKind.OUTPUT, "key-8", reordered, this::create);
+
+        // Then
+        assertTrue(retry.replayed());
+        assertEquals(1, creates.get());
+    }
+
+    @Test
+    void execute_ShouldReject_WhenKeyIsReusedForDifferentRequest() {
+        // Given
+        when(repository.findById(any())).thenReturn(Optional.empty());
+        service.execute(TransactionKind.OUTPUT, "key-3", TAXI, this::create);
+        OutputDTO other = new OutputDTO("Taxi", "Transport", 40.0, "2025-08-04");
+
+        // When & Then
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> service.execute(TransactionKind.OUTPUT, "key-3", other, this::create));
+        assertEquals(1, creates.get());
+    }
+
+    @Test
+    void execute_ShouldKeepKeysApartPerKind() {
+        // Given
+        when(repository.findById(any())).thenReturn(Optional.empty());
+        service.execute(TransactionKind.OUTPUT, "key-4", TAXI, this::create);
+
+        // When
+        IdempotentResponse income = service.execute(TransactionKind.INCOME, "key-4", TAXI, this::create);
+
+        // Then
+        assertFalse(income.replayed());
+        assertEquals(2, creates.get());
+    }
+
+    @Test
+    void execute_ShouldAnswerConflict_WhenConcurrentRequestStoredTheKeyFirst() {
+        // Given
+        when(repository.findById(any())).thenReturn(Optional.empty());
+        when(repository.saveAndFlush(any(IdempotencyKey.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        // When & Then
+        assertThrows(IdempotencyKeyInProgressException.class,
+                () -> service.execute(TransactionKind.OUTPUT, "key-5", TAXI, this::create));
+    }
+
+    @Test
+    void execute_ShouldRejectBlankOrOverlongKeys() {
+        assertThrows(InvalidIdempotencyKeyException.class,
+                () -> service.execute(TransactionKind.OUTPUT, " ", TAXI, this::create));
+        assertThrows(InvalidIdempotencyKeyException.class,
+                () -> service.execute(TransactionKind.OUTPUT, "k".repeat(256), TAXI, this::create));
+        assertEquals(0, creates.get());
+        verifyNoInteractions(repository);
+    }
+
+    private String create() {
+        creates.incrementAndGet();
+        return "Output created successfully";
+    }
+}
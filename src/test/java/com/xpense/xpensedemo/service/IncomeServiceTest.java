@@ -1,14 +1,25 @@
 package com.xpense.xpensedemo.service;
 
+import com.xpense.xpensedemo.dto.DailyTotal;
+import com.xpense.xpensedemo.dto.DateRange;
 import com.xpense.xpensedemo.dto.IncomeDTO;
+import com.xpense.xpensedemo.dto.IncomeView;
+import com.xpense.xpensedemo.dto.KeysetCursor;
+import com.xpense.xpensedemo.dto.PageResponse;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.exception.ConcurrentChangeException;
+import com.xpense.xpensedemo.exception.InvalidCursorException;
+import com.xpense.xpensedemo.exception.VersionConflictException;
 import com.xpense.xpensedemo.model.transaction.Income;
 import com.xpense.xpensedemo.repository.IncomeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -25,6 +36,15 @@ class IncomeServiceTest {
     @Mock
     private IncomeRepository incomeRepository;
 
+    @Mock
+    private SummaryService summaryService;
+
+    @Mock
+    private AnalyticsService analyticsService;
+
+    @Mock
+    private ResourceVersions resourceVersions;
+
     @InjectMocks
     private IncomeService incomeService;
 
@@ -132,27 +152,36 @@ class IncomeServiceTest {
     }
 
     @Test
-    void deleteIncome_ShouldCallRepositoryDeleteById() {
+    void deleteIncome_ShouldLockTheRowBeforeDeletingIt() {
         // Given
         Long incomeId = 1L;
+        when(incomeRepository.lockIds(List.of(incomeId))).thenReturn(List.of(incomeId));
+        when(incomeRepository.sumByIds(List.of(incomeId))).thenReturn(List.of(
+                new DailyTotal(LocalDate.of(2025, 8, 12), 2500.00, 1)));
+        when(incomeRepository.deleteByIds(List.of(incomeId))).thenReturn(1);
 
         // When
         incomeService.deleteIncome(incomeId);
 
         // Then
-        verify(incomeRepository, times(1)).deleteById(incomeId);
+        InOrder order = inOrder(incomeRepository);
+        order.verify(incomeRepository).lockIds(List.of(incomeId));
+        order.verify(incomeRepository).deleteByIds(List.of(incomeId));
+        verify(analyticsService).removed(TransactionKind.INCOME, List.of(incomeId));
     }
 
     @Test
-    void deleteIncome_ShouldCallRepositoryDeleteById_WithCorrectId() {
+    void deleteIncome_ShouldDeleteNothing_WhenIncomeDoesNotExist() {
         // Given
         Long incomeId = 42L;
+        when(incomeRepository.lockIds(List.of(incomeId))).thenReturn(List.of());
 
         // When
         incomeService.deleteIncome(incomeId);
 
         // Then
-        verify(incomeRepository).deleteById(eq(incomeId));
+        verify(incomeRepository, never()).deleteByIds(any());
+        verifyNoInteractions(summaryService, analyticsService, resourceVersions);
     }
 
     @Test
@@ -179,4 +208,210 @@ class IncomeServiceTest {
         // Then
         verify(incomeRepository, times(1)).findById(nullId);
     }
+
+    @Test
+    void getIncomePage_ShouldReturnNextCursor_WhenMoreRowsExist() {
+        // Given
+        IncomeView first = new IncomeView(1L, 100.0, "First", LocalDate.of(2025, 8, 1), null, 0L);
+        IncomeView second = new IncomeView(2L, 200.0, "Second", LocalDate.of(2025, 8, 2), null, 0L);
+        IncomeView third = new IncomeView(3L, 300.0, "Third", LocalDate.of(2025, 8, 3), null, 0L);
+
+        when(incomeRepository.findPage(DateRange.MIN_DATE, DateRange.MAX_DATE, KeysetCursor.BEFORE_FIRST_ID, Limit.of(3))).thenReturn(Arrays.asList(first, second, third));
+
+        // When
+        PageResponse<IncomeView> page = incomeService.getIncomePage(null, 2);
+
+        // Then
+        assertEquals(Arrays.asList(first, second), page.items());
+        assertEquals(new KeysetCursor(LocalDate.of(2025, 8, 2), 2L), KeysetCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void getIncomePage_ShouldContinueAfterCursor() {
+        // Given
+        String cursor = new KeysetCursor(LocalDate.of(2025, 8, 2), 2L).encode();
+        IncomeView third = new IncomeView(3L, 300.0, "Third", LocalDate.of(2025, 8, 3), null, 0L);
+
+        when(incomeRepository.findPage(LocalDate.of(2025, 8, 2), DateRange.MAX_DATE, 2L, Limit.of(3))).thenReturn(List.of(third));
+
+        // When
+        PageResponse<IncomeView> page = incomeService.getIncomePage(cursor, 2);
+
+        // Then
+        assertEquals(List.of(third), page.items());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getIncomePage_ShouldCapPageSize() {
+        // Given
+        when(incomeRepository.findPage(any(), any(), any(), any())).thenReturn(List.of());
+
+        // When
+        incomeService.getIncomePage(null, 100_000);
+
+        // Then
+        verify(incomeRepository).findPage(any(), any(), any(), eq(Limit.of(PageResponse.MAX_PAGE_SIZE + 1)));
+    }
+
+    @Test
+    void getIncomePage_ShouldBoundQueryByDateRange() {
+        // Given
+        DateRange august = DateRange.of(LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 31));
+        when(incomeRepository.findPage(any(), any(), any(), any())).thenReturn(List.of());
+
+        // When
+        incomeService.getIncomePage(null, 10, august);
+
+        // Then
+        verify(incomeRepository).findPage(LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 31),
+                KeysetCursor.BEFORE_FIRST_ID, Limit.of(11));
+    }
+
+    @Test
+    void getIncomePage_ShouldRestartAtRangeStartWhenCursorPrecedesRange() {
+        // Given
+        String cursor = new KeysetCursor(LocalDate.of(2025, 7, 15), 4L).encode();
+        DateRange august = DateRange.of(LocalDate.of(2025, 8, 1), null);
+        when(incomeRepository.findPage(any(), any(), any(), any())).thenReturn(List.of());
+
+        // When
+        incomeService.getIncomePage(cursor, 10, august);
+
+        // Then
+        verify(incomeRepository).findPage(LocalDate.of(2025, 8, 1), DateRange.MAX_DATE,
+                KeysetCursor.BEFORE_FIRST_ID, Limit.of(11));
+    }
+
+    @Test
+    void getIncomePage_ShouldRejectMalformedCursor() {
+        // When & Then
+        assertThrows(InvalidCursorException.class, () -> incomeService.getIncomePage("not-a-cursor", 10));
+        verifyNoInteractions(incomeRepository);
+    }
+
+    @Test
+    void createIncomes_ShouldSaveWholeBatchInOneCall() {
+        // Given
+        IncomeDTO bonus = new IncomeDTO("Bonus", "Employment", 500.00, "2025-08-20");
+
+        // When
+        int created = incomeService.createIncomes(List.of(incomeDTO, bonus));
+
+        // Then
+        assertEquals(2, created);
+        verify(incomeRepository, times(1)).saveAll(argThat(incomes -> {
+            List<Income> saved = (List<Income>) incomes;
+            return saved.size() == 2 && saved.get(1).getDescription().equals("Bonus");
+        }));
+        verify(incomeRepository, never()).save(any(Income.class));
+    }
+
+    @Test
+    void createIncome_ShouldAddIncomeToMonthlyRollup() {
+        // When
+        incomeService.createIncome(incomeDTO);
+
+        // Then
+        verify(summaryService).add(eq(TransactionKind.INCOME), argThat(incomes ->
+                incomes.size() == 1 && incomes.iterator().next().getAmount() == 2500.00));
+    }
+
+    @Test
+    void updateIncome_ShouldKeepIdAndMoveRollupAmounts() {
+        // Given
+        Long incomeId = 5L;
+        IncomeView existing = new IncomeView(incomeId, 1000.00, "Old salary", LocalDate.of(2025, 7, 12), null, 2L);
+        when(incomeRepository.findViewById(incomeId)).thenReturn(Optional.of(existing));
+        when(incomeRepository.updateIfVersion(eq(incomeId), eq(2L), anyDouble(), any(), any())).thenReturn(1);
+
+        // When
+        IncomeView updated = incomeService.updateIncome(incomeId, incomeDTO, null);
+
+        // Then the row is updated in place, never inserted again
+        verify(incomeRepository).updateIfVersion(incomeId, 2L, 2500.00, incomeDTO.description(), LocalDate.of(2025, 8, 12));
+        verify(incomeRepository, never()).save(any(Income.class));
+        verify(summaryService).apply(argThat((RollupDeltas deltas) -> deltas.byKey().size() == 2));
+        assertEquals(incomeId, updated.id());
+        assertEquals(3L, updated.version());
+    }
+
+    @Test
+    void updateIncome_ShouldConflict_WhenRowChangedAfterItWasRead() {
+        // Given
+        IncomeView existing = new IncomeView(5L, 1000.00, "Old salary", LocalDate.of(2025, 7, 12), null, 2L);
+        when(incomeRepository.findViewById(5L)).thenReturn(Optional.of(existing));
+        when(incomeRepository.updateIfVersion(eq(5L), eq(2L), anyDouble(), any(), any())).thenReturn(0);
+
+        // When & Then
+        assertThrows(VersionConflictException.class, () -> incomeService.updateIncome(5L, incomeDTO, 2L));
+        verifyNoInteractions(summaryService, analyticsService);
+    }
+
+    @Test
+    void deleteIncome_ShouldSubtractExistingIncomeFromRollup() {
+        // Given
+        when(incomeRepository.lockIds(List.of(1L))).thenReturn(List.of(1L));
+        when(incomeRepository.sumByIds(List.of(1L))).thenReturn(List.of(
+                new DailyTotal(LocalDate.of(2025, 8, 12), 2500.00, 1)));
+        when(incomeRepository.deleteByIds(List.of(1L))).thenReturn(1);
+
+        // When
+        incomeService.deleteIncome(1L);
+
+        // Then
+        verify(summaryService).apply(argThat((RollupDeltas deltas) -> deltas.byKey().size() == 1
+                && deltas.byKey().values().iterator().next().count == -1
+                && deltas.byKey().values().iterator().next().total == -2500.00));
+        verify(incomeRepository).deleteByIds(List.of(1L));
+    }
+
+    @Test
+    void deleteIncome_ShouldRemoveIncomeFromAnalytics() {
+        // Given
+        when(incomeRepository.lockIds(List.of(1L))).thenReturn(List.of(1L));
+        when(incomeRepository.sumByIds(List.of(1L))).thenReturn(List.of(
+                new DailyTotal(LocalDate.of(2025, 8, 12), 2500.00, 1)));
+        when(incomeRepository.deleteByIds(List.of(1L))).thenReturn(1);
+
+        // When
+        incomeService.deleteIncome(1L);
+
+        // Then
+        verify(analyticsService).removed(TransactionKind.INCOME, List.of(1L));
+    }
+
+    @Test
+    void deleteIncomes_ShouldTakeDeletedRowsOutOfRollupsAndAnalytics() {
+        // Given
+        DateRange range = DateRange.of(LocalDate.of(2025, 7, 1), LocalDate.of(2025, 8, 31));
+        when(incomeRepository.lockIdsInRange(range.from(), range.to())).thenReturn(List.of(1L, 2L));
+        when(incomeRepository.sumInRange(range.from(), range.to())).thenReturn(List.of(
+                new DailyTotal(LocalDate.of(2025, 7, 1), 1000.00, 1),
+                new DailyTotal(LocalDate.of(2025, 8, 1), 1000.00, 1)));
+        when(incomeRepository.deleteInRange(range.from(), range.to())).thenReturn(2);
+
+        // When
+        int deleted = incomeService.deleteIncomes(range);
+
+        // Then
+        assertEquals(2, deleted);
+        verify(summaryService).apply(argThat((RollupDeltas deltas) -> deltas.byKey().size() == 2));
+        verify(analyticsService).removed(TransactionKind.INCOME, List.of(1L, 2L));
+    }
+
+    @Test
+    void deleteIncomes_ShouldRollBack_WhenIncomeIsAddedToRangeAfterLocking() {
+        // Given
+        DateRange range = DateRange.of(LocalDate.of(2025, 7, 1), LocalDate.of(2025, 8, 31));
+        when(incomeRepository.lockIdsInRange(range.from(), range.to())).thenReturn(List.of(1L, 2L));
+        when(incomeRepository.sumInRange(range.from(), range.to())).thenReturn(List.of(
+                new DailyTotal(LocalDate.of(2025, 7, 1), 2000.00, 2),
+                new DailyTotal(LocalDate.of(2025, 8, 1), 1000.00, 1)));
+        when(incomeRepository.deleteInRange(range.from(), range.to())).thenReturn(3);
+
+        // When & Then
+        assertThrows(ConcurrentChangeException.class, () -> incomeService.deleteIncomes(range));
+        verifyNoInteractions(summaryService, analyticsService);
+    }
 }
@@ -1,22 +1,37 @@
 package com.xpense.xpensedemo.service;
 
+import com.xpense.xpensedemo.dto.DailyTotal;
+import com.xpense.xpensedemo.dto.DateRange;
+import com.xpense.xpensedemo.dto.KeysetCursor;
 import com.xpense.xpensedemo.dto.OutputDTO;
+import com.xpense.xpensedemo.dto.OutputPatch;
+import com.xpense.xpensedemo.dto.OutputView;
+import com.xpense.xpensedemo.dto.PageResponse;
+import com.xpense.xpensedemo.dto.RowVersion;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.exception.ConcurrentChangeException;
+import com.xpense.xpensedemo.exception.InvalidTransactionException;
+import com.xpense.xpensedemo.exception.VersionConflictException;
+import com.xpense.xpensedemo.id.TransactionIdSettings;
+import com.xpense.xpensedemo.importer.TransactionImporter;
 import com.xpense.xpensedemo.model.category.Category;
 import com.xpense.xpensedemo.model.transaction.Output;
 import com.xpense.xpensedemo.repository.OutputRepository;
-import com.xpense.xpensedemo.repository.CategoryRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -29,9 +44,23 @@ class OutputServiceTest {
     private OutputRepository outputRepository;
 
     @Mock
-    private CategoryRepository categoryRepository;
+    private CategoryService categoryService;
+
+    @Mock
+    private SummaryService summaryService;
+
+    @Mock
+    private AnalyticsService analyticsService;
+
+    @Mock
+    private ResourceVersions resourceVersions;
+
+    @Mock
+    private TransactionImporter importer;
+
+    @Mock
+    private TransactionIdSettings idSettings;
 
-    @InjectMocks
     private OutputService outputService;
 
     private OutputDTO outputDTO;
@@ -40,6 +69,8 @@ class OutputServiceTest {
 
     @BeforeEach
     void setUp() {
+        outputService = new OutputService(outputRepository, categoryService, summaryService, analyticsService,
+                resourceVersions, importer, idSettings, false);
         outputDTO = new OutputDTO(
                 "Grocery shopping",
                 "Food",
@@ -54,7 +85,7 @@ class OutputServiceTest {
     @Test
     void createOutput_ShouldSaveOutput_WhenValidDTOProvided() {
         // Given
-        when(categoryRepository.findByName("Food")).thenReturn(Optional.of(category));
+        when(categoryService.getCategoryByName("Food")).thenReturn(Optional.of(category));
         when(outputRepository.save(any(Output.class))).thenReturn(output);
 
         // When
@@ -67,7 +98,7 @@ class OutputServiceTest {
     @Test
     void createOutput_ShouldCallRepositorySaveWithCorrectData() {
         // Given
-        when(categoryRepository.findByName("Food")).thenReturn(Optional.of(category));
+        when(categoryService.getCategoryByName("Food")).thenReturn(Optional.of(category));
         when(outputRepository.save(any(Output.class))).thenReturn(output);
 
         // When
@@ -146,12 +177,21 @@ class OutputServiceTest {
     void deleteOutput_ShouldDeleteOutput_WhenOutputExists() {
         // Given
         Long outputId = 1L;
+        when(outputRepository.lockIds(List.of(outputId))).thenReturn(List.of(outputId));
+        when(outputRepository.sumByIds(List.of(outputId))).thenReturn(List.of(
+                new DailyTotal(LocalDate.of(2025, 8, 12), 1L, 125.50, 1)));
+        when(outputRepository.deleteByIds(List.of(outputId))).thenReturn(1);
 
         // When
         outputService.deleteOutput(outputId);
 
-        // Then
-        verify(outputRepository, times(1)).deleteById(outputId);
+        // Then the row is locked before it is summed and deleted, so a racing update waits
+        InOrder order = inOrder(outputRepository);
+        order.verify(outputRepository).lockIds(List.of(outputId));
+        order.verify(outputRepository).sumByIds(List.of(outputId));
+        order.verify(outputRepository).deleteByIds(List.of(outputId));
+        verify(summaryService).apply(argThat((RollupDeltas deltas) -> deltas.byKey().size() == 1));
+        verify(analyticsService).removed(TransactionKind.OUTPUT, List.of(outputId));
     }
 
     @Test
@@ -164,18 +204,21 @@ class OutputServiceTest {
                 150.00,
                 "2025-08-12"
         );
-        Output existingOutput = new Output(125.50, "Grocery shopping", LocalDate.of(2025, 8, 12));
+        OutputView existing = new OutputView(outputId, 125.50, "Grocery shopping", LocalDate.of(2025, 8, 12), null, 3L, 1L, "Food");
 
-        when(outputRepository.findById(outputId)).thenReturn(Optional.of(existingOutput));
-        when(categoryRepository.findByName("Food")).thenReturn(Optional.of(category));
+        when(outputRepository.findViewById(outputId)).thenReturn(Optional.of(existing));
+        when(categoryService.getCategoryByName("Food")).thenReturn(Optional.of(category));
+        when(outputRepository.updateIfVersion(outputId, 3L, 150.00, "Updated grocery shopping", LocalDate.of(2025, 8, 12), category))
+                .thenReturn(1);
 
         // When
-        outputService.updateOutput(outputId, updatedOutputDTO);
+        OutputView updated = outputService.updateOutput(outputId, updatedOutputDTO, null);
 
         // Then
-        verify(outputRepository, times(1)).findById(outputId);
-        verify(categoryRepository, times(1)).findByName("Food");
-        verify(outputRepository, times(1)).save(any(Output.class));
+        assertEquals(4L, updated.version());
+        assertEquals(150.00, updated.amount());
+        verify(outputRepository, never()).findById(any());
+        verify(outputRepository, never()).save(any(Output.class));
     }
 
     @Test
@@ -189,7 +232,7 @@ class OutputServiceTest {
                 "2025-08-12"
         );
 
-        when(outputRepository.findById(outputId)).thenReturn(Optional.empty());
+        when(outputRepository.findViewById(outputId)).thenReturn(Optional.empty());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () ->
@@ -197,22 +240,65 @@ class OutputServiceTest {
         );
 
         assertEquals("Output not found with id: " + outputId, exception.getMessage());
-        verify(outputRepository, times(1)).findById(outputId);
-        verify(outputRepository, never()).save(any(Output.class));
+        verify(outputRepository, times(1)).findViewById(outputId);
+        verify(outputRepository, never()).updateIfVersion(any(), anyLong(), anyDouble(), any(), any(), any());
+    }
+
+    @Test
+    void updateOutput_ShouldConflict_WhenClientVersionIsStale() {
+        // Given
+        OutputView existing = new OutputView(1L, 125.50, "Grocery shopping", LocalDate.of(2025, 8, 12), null, 3L, 1L, "Food");
+        when(outputRepository.findViewById(1L)).thenReturn(Optional.of(existing));
+
+        // When & Then
+        assertThrows(VersionConflictException.class, () -> outputService.updateOutput(1L, outputDTO, 2L));
+        verify(outputRepository, never()).updateIfVersion(any(), anyLong(), anyDouble(), any(), any(), any());
+        verifyNoInteractions(summaryService);
+    }
+
+    @Test
+    void updateOutput_ShouldConflict_WhenRowChangedAfterItWasRead() {
+        // Given
+        OutputView existing = new OutputView(1L, 125.50, "Grocery shopping", LocalDate.of(2025, 8, 12), null, 3L, 1L, "Food");
+        when(outputRepository.findViewById(1L)).thenReturn(Optional.of(existing));
+        when(categoryService.getCategoryByName("Food")).thenReturn(Optional.of(category));
+        when(outputRepository.updateIfVersion(eq(1L), eq(3L), anyDouble(), any(), any(), any())).thenReturn(0);
+
+        // When & Then
+        assertThrows(VersionConflictException.class, () -> outputService.updateOutput(1L, outputDTO, 3L));
+        verifyNoInteractions(summaryService, analyticsService);
+    }
+
+    @Test
+    void patchOutput_ShouldKeepFieldsLeftOut() {
+        // Given
+        OutputView existing = new OutputView(1L, 125.50, "Grocery shopping", LocalDate.of(2025, 8, 12), null, 0L, 1L, "Food");
+        when(outputRepository.findViewById(1L)).thenReturn(Optional.of(existing));
+        when(categoryService.getCategoryByName("Food")).thenReturn(Optional.of(category));
+        when(outputRepository.updateIfVersion(1L, 0L, 99.0, "Grocery shopping", LocalDate.of(2025, 8, 12), category))
+                .thenReturn(1);
+
+        // When
+        OutputView patched = outputService.patchOutput(1L, new OutputPatch(null, null, 99.0, null), null);
+
+        // Then
+        assertEquals("Grocery shopping", patched.description());
+        assertEquals(99.0, patched.amount());
+        assertEquals(1L, patched.version());
     }
 
     // Tests for Category-related functionality
     @Test
     void createOutput_ShouldAssignCategory_WhenCategoryExists() {
         // Given
-        when(categoryRepository.findByName("Food")).thenReturn(Optional.of(category));
+        when(categoryService.getCategoryByName("Food")).thenReturn(Optional.of(category));
         when(outputRepository.save(any(Output.class))).thenReturn(output);
 
         // When
         outputService.createOutput(outputDTO);
 
         // Then
-        verify(categoryRepository, times(1)).findByName("Food");
+        verify(categoryService, times(1)).getCategoryByName("Food");
         verify(outputRepository).save(argThat(savedOutput ->
                 savedOutput.getCategory() != null &&
                 savedOutput.getCategory().getName().equals("Food")
@@ -220,20 +306,35 @@ class OutputServiceTest {
     }
 
     @Test
-    void createOutput_ShouldCreateWithoutCategory_WhenCategoryDoesNotExist() {
+    void createOutputs_ShouldCreateUnknownCategories_WhenEnabled() {
         // Given
-        when(categoryRepository.findByName("Food")).thenReturn(Optional.empty());
-        Output outputWithoutCategory = new Output(125.50, "Grocery shopping", LocalDate.of(2025, 8, 12));
-        when(outputRepository.save(any(Output.class))).thenReturn(outputWithoutCategory);
+        OutputService creating = new OutputService(outputRepository, categoryService, summaryService, analyticsService,
+                resourceVersions, importer, idSettings, true);
+        Category travel = new Category(6L, "Travel");
+        OutputDTO trip = new OutputDTO("Train", "Travel", 40.0, "2025-08-13");
+        when(categoryService.getOrCreateCategories(Set.of("Food", "Travel")))
+                .thenReturn(Map.of("Food", category, "Travel", travel));
 
         // When
-        outputService.createOutput(outputDTO);
+        creating.createOutputs(List.of(outputDTO, trip));
 
         // Then
-        verify(categoryRepository, times(1)).findByName("Food");
-        verify(outputRepository).save(argThat(savedOutput ->
-                savedOutput.getCategory() == null
-        ));
+        verify(categoryService, never()).getCategoriesByName(any());
+        verify(outputRepository).saveAll(argThat((List<Output> outputs) ->
+                outputs.get(0).getCategory() == category && outputs.get(1).getCategory() == travel));
+    }
+
+    @Test
+    void createOutput_ShouldRejectUnknownCategory() {
+        // Given
+        when(categoryService.getCategoryByName("Food")).thenReturn(Optional.empty());
+
+        // When & Then
+        InvalidTransactionException error = assertThrows(InvalidTransactionException.class,
+                () -> outputService.createOutput(outputDTO));
+        assertEquals("Unknown category: Food", error.getMessage());
+        verify(outputRepository, never()).save(any());
+        verifyNoInteractions(summaryService, analyticsService);
     }
 
     @Test
@@ -257,4 +358,209 @@ class OutputServiceTest {
         assertEquals("Transportation", actualOutputs.get(1).getCategory().getName());
         verify(outputRepository, times(1)).findAll();
     }
+
+    @Test
+    void getOutputPage_ShouldReturnNextCursor_WhenMoreRowsExist() {
+        // Given
+        OutputView first = new OutputView(7L, 10.0, "Coffee", LocalDate.of(2025, 8, 1), null, 0L, 1L, "Food");
+        OutputView second = new OutputView(8L, 20.0, "Lunch", LocalDate.of(2025, 8, 1), null, 0L, 1L, "Food");
+
+        when(outputRepository.findPage(DateRange.MIN_DATE, DateRange.MAX_DATE, KeysetCursor.BEFORE_FIRST_ID, Limit.of(2))).thenReturn(Arrays.asList(first, second));
+
+        // When
+        PageResponse<OutputView> page = outputService.getOutputPage(null, 1);
+
+        // Then
+        assertEquals(List.of(first), page.items());
+        assertEquals(new KeysetCursor(LocalDate.of(2025, 8, 1), 7L), KeysetCursor.decode(page.nextCursor()));
+    }
+
+    @Test
+    void getOutputPage_ShouldReturnLastPageWithoutCursor() {
+        // Given
+        String cursor = new KeysetCursor(LocalDate.of(2025, 8, 1), 7L).encode();
+        OutputView second = new OutputView(8L, 20.0, "Lunch", LocalDate.of(2025, 8, 1), null, 0L, 1L, "Food");
+
+        when(outputRepository.findPage(LocalDate.of(2025, 8, 1), DateRange.MAX_DATE, 7L, Limit.of(PageResponse.DEFAULT_PAGE_SIZE + 1)))
+                .thenReturn(List.of(second));
+
+        // When
+        PageResponse<OutputView> page = outputService.getOutputPage(cursor, null);
+
+        // Then
+        assertEquals(List.of(second), page.items());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void getOutputPage_ShouldFilterByCategoryId() {
+        // Given
+        DateRange august = DateRange.of(LocalDate.of(2025, 8, 1), LocalDate.of(2025, 8, 31));
+        when(categoryService.getCategoryByName("Food")).thenReturn(Optional.of(category));
+        when(outputRepository.findPageByCategory(any(), any(), any(), any(), any())).thenReturn(List.of());
+
+        // When
+        outputService.getOutputPage(null, 10, august, "Food");
+
+        // Then
+        verify(outputRepository).findPageByCategory(category.getId(), LocalDate.of(2025, 8, 1),
+                LocalDate.of(2025, 8, 31), KeysetCursor.BEFORE_FIRST_ID, Limit.of(11));
+        verify(outputRepository, never()).findPage(any(), any(), any(), any());
+    }
+
+    @Test
+    void getOutputPage_ShouldReturnEmptyPageForUnknownCategory() {
+        // Given
+        when(categoryService.getCategoryByName("Unknown")).thenReturn(Optional.empty());
+
+        // When
+        PageResponse<OutputView> page = outputService.getOutputPage(null, 10, DateRange.all(), "Unknown");
+
+        // Then
+        assertTrue(page.items().isEmpty());
+        assertNull(page.nextCursor());
+        verifyNoInteractions(outputRepository);
+    }
+
+    @Test
+    void createOutputs_ShouldResolveCategoriesOnceAndSaveBatch() {
+        // Given
+        OutputDTO lunch = new OutputDTO("Lunch", "Food", 15.00, "2025-08-13");
+        OutputDTO taxi = new OutputDTO("Taxi", "Transportation", 40.00, "2025-08-14");
+        Category transportation = new Category(2L, "Transportation");
+        when(categoryService.getCategoriesByName(Set.of("Food", "Transportation")))
+                .thenReturn(Map.of("Food", category, "Transportation", transportation));
+
+        // When
+        int created = outputService.createOutputs(List.of(outputDTO, lunch, taxi));
+
+        // Then
+        assertEquals(3, created);
+        verify(categoryService, times(1)).getCategoriesByName(any());
+        verify(categoryService, never()).getCategoryByName(any());
+        verify(outputRepository).saveAll(argThat(outputs -> {
+            List<Output> saved = (List<Output>) outputs;
+            return saved.size() == 3
+                    && saved.get(0).getCategory() == category
+                    && saved.get(1).getCategory() == category
+                    && saved.get(2).getCategory() == transportation;
+        }));
+    }
+
+    @Test
+    void createOutputs_ShouldRejectWholeBatch_WhenAnyCategoryIsUnknown() {
+        // Given
+        OutputDTO unknown = new OutputDTO("Gift", "Unknown", 40.00, "2025-08-14");
+        when(categoryService.getCategoriesByName(Set.of("Food", "Unknown"))).thenReturn(Map.of("Food", category));
+
+        // When & Then
+        InvalidTransactionException error = assertThrows(InvalidTransactionException.class,
+                () -> outputService.createOutputs(List.of(outputDTO, unknown)));
+        assertEquals("Unknown category: Unknown", error.getMessage());
+        verify(outputRepository, never()).saveAll(any());
+        verifyNoInteractions(summaryService, analyticsService);
+    }
+
+    @Test
+    void updateOutput_ShouldMoveRollupAmountsFromOldToNewValues() {
+        // Given
+        Long outputId = 1L;
+        OutputView existing = new OutputView(outputId, 125.50, "Grocery shopping", LocalDate.of(2025, 7, 12), null, 0L, 1L, "Food");
+        when(outputRepository.findViewById(outputId)).thenReturn(Optional.of(existing));
+        when(categoryService.getCategoryByName("Food")).thenReturn(Optional.of(category));
+        when(outputRepository.updateIfVersion(eq(outputId), eq(0L), anyDouble(), any(), any(), any())).thenReturn(1);
+
+        // When
+        outputService.updateOutput(outputId, outputDTO);
+
+        // Then one rollup write takes July's amount out and puts August's in
+        var inOrder = inOrder(outputRepository, summaryService);
+        inOrder.verify(outputRepository).updateIfVersion(outputId, 0L, 125.50, "Grocery shopping", LocalDate.of(2025, 8, 12), category);
+        inOrder.verify(summaryService).apply(argThat((RollupDeltas deltas) -> deltas.byKey().size() == 2));
+    }
+
+    @Test
+    void createOutput_ShouldRecordOutputForAnalytics() {
+        // Given
+        when(categoryService.getCategoryByName("Food")).thenReturn(Optional.of(category));
+
+        // When
+        outputService.createOutput(outputDTO);
+
+        // Then
+        verify(analyticsService).added(eq(TransactionKind.OUTPUT), argThat((List<Output> outputs) ->
+                outputs.size() == 1 && outputs.get(0).getCategory() == category));
+    }
+
+    @Test
+    void deleteOutputs_ShouldTakeDeletedRowsOutOfRollupsAndAnalytics() {
+        // Given
+        List<Long> ids = List.of(1L, 2L, 3L);
+        when(outputRepository.lockIds(ids)).thenReturn(List.of(1L, 2L));
+        when(outputRepository.sumByIds(List.of(1L, 2L))).thenReturn(List.of(
+                new DailyTotal(LocalDate.of(2025, 7, 1), 1L, 10.0, 1),
+                new DailyTotal(LocalDate.of(2025, 7, 2), 1L, 20.0, 1)));
+        when(outputRepository.deleteByIds(List.of(1L, 2L))).thenReturn(2);
+
+        // When
+        int deleted = outputService.deleteOutputs(ids);
+
+        // Then both days fall into one July rollup row, and the unknown id is ignored
+        assertEquals(2, deleted);
+        verify(summaryService).apply(argThat((RollupDeltas deltas) -> deltas.byKey().size() == 1
+                && deltas.byKey().values().iterator().next().count == -2
+                && deltas.byKey().values().iterator().next().total == -30.0));
+        verify(analyticsService).removed(TransactionKind.OUTPUT, List.of(1L, 2L));
+        verify(resourceVersions).bump(ResourceVersions.Resource.OUTPUTS);
+    }
+
+    @Test
+    void deleteOutputs_ShouldRollBack_WhenOutputIsAddedToRangeAfterLocking() {
+        // Given
+        DateRange range = DateRange.of(LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 31));
+        when(categoryService.getCategoryByName("Food")).thenReturn(Optional.of(category));
+        when(outputRepository.lockIdsInRange(range.from(), range.to(), 1L)).thenReturn(List.of(1L));
+        when(outputRepository.sumInRange(range.from(), range.to(), 1L)).thenReturn(List.of(
+                new DailyTotal(LocalDate.of(2025, 7, 1), 1L, 30.0, 2)));
+        when(outputRepository.deleteInRange(range.from(), range.to(), 1L)).thenReturn(2);
+
+        // When & Then
+        assertThrows(ConcurrentChangeException.class, () -> outputService.deleteOutputs(range, "Food"));
+        verifyNoInteractions(summaryService, analyticsService, resourceVersions);
+    }
+
+    @Test
+    void deleteOutputs_ShouldDeleteNothing_WhenCategoryIsUnknown() {
+        // Given
+        when(categoryService.getCategoryByName("Travel")).thenReturn(Optional.empty());
+
+        // When
+        int deleted = outputService.deleteOutputs(DateRange.all(), "Travel");
+
+        // Then
+        assertEquals(0, deleted);
+        verify(outputRepository, never()).deleteInRange(any(), any(), any());
+    }
+
+    @Test
+    void recategorizeOutputs_ShouldMoveRollupsAndAnalyticsToTargetCategory() {
+        // Given
+        Category education = new Category(5L, "Education");
+        when(categoryService.getCategoryByName("Food")).thenReturn(Optional.of(category));
+        when(categoryService.getCategoryByName("Education")).thenReturn(Optional.of(education));
+        when(outputRepository.lockCategory(1L)).thenReturn(List.of(new RowVersion(1L, 0), new RowVersion(2L, 3)));
+        when(outputRepository.sumInRange(DateRange.MIN_DATE, DateRange.MAX_DATE, 1L)).thenReturn(List.of(
+                new DailyTotal(LocalDate.of(2025, 7, 1), 1L, 10.0, 1),
+                new DailyTotal(LocalDate.of(2025, 8, 1), 1L, 20.0, 1)));
+        when(outputRepository.recategorize(category, education)).thenReturn(2);
+
+        // When
+        int moved = outputService.recategorizeOutputs("Food", "Education");
+
+        // Then July and August each leave Food and enter Education
+        assertEquals(2, moved);
+        verify(summaryService).apply(argThat((RollupDeltas deltas) -> deltas.byKey().size() == 4));
+        verify(analyticsService).recategorized(TransactionKind.OUTPUT, List.of(new RowVersion(1L, 1), new RowVersion(2L, 4)), 5L);
+        verify(resourceVersions).bump(ResourceVersions.Resource.OUTPUTS);
+    }
 }
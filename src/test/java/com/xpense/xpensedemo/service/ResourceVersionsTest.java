@@ -0,0 +1,76 @@
+package com.xpense.xpensedemo.service;
+
+import com.xpense.xpensedemo.service.ResourceVersions.Resource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ResourceVersionsTest {
+
+    @Autowired
+    ResourceVersions versions;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @Test
+    void version_ShouldChangeOnlyForBumpedResources() {
+        // Given
+        String categories = versions.version(Resource.CATEGORIES);
+        String outputs = versions.version(Resource.OUTPUTS, Resource.CATEGORIES);
+
+        // When
+        versions.bump(Resource.INCOMES);
+
+        // Then
+        assertEquals(categories, versions.version(Resource.CATEGORIES));
+        assertEquals(outputs, versions.version(Resource.OUTPUTS, Resource.CATEGORIES));
+    }
+
+    @Test
+    void version_ShouldMove_WhenAnotherInstanceWrites() {
+        // Given
+        ResourceVersions otherInstance = new ResourceVersions(jdbcTemplate);
+        String before = versions.version(Resource.OUTPUTS);
+
+        // When
+        otherInstance.bump(Resource.OUTPUTS);
+
+        // Then
+        assertNotEquals(before, versions.version(Resource.OUTPUTS));
+        assertEquals(otherInstance.version(Resource.OUTPUTS), versions.version(Resource.OUTPUTS));
+    }
+
+    @Test
+    void bump_ShouldApplyOnCommitOnly_WhenInsideATransaction() {
+        // Given
+        String before = versions.version(Resource.OUTPUTS);
+
+        // When
+        transactionTemplate.executeWithoutResult(status -> {
+            versions.bump(Resource.OUTPUTS);
+            versions.bump(Resource.OUTPUTS);
+            // Then
+            assertEquals(before, versions.version(Resource.OUTPUTS));
+        });
+        String committed = versions.version(Resource.OUTPUTS);
+        transactionTemplate.executeWithoutResult(status -> {
+            versions.bump(Resource.OUTPUTS);
+            status.setRollbackOnly();
+        });
+
+        // Then
+        assertNotEquals(before, committed);
+        assertEquals(committed, versions.version(Resource.OUTPUTS));
+    }
+}
@@ -1,16 +1,69 @@
 package com.xpense.xpensedemo.service;
 
+import com.xpense.xpensedemo.dto.AnalyticsBucket;
+import com.xpense.xpensedemo.dto.DateRange;
+import com.xpense.xpensedemo.dto.ImportReport;
+import com.xpense.xpensedemo.dto.IncomeDTO;
+import com.xpense.xpensedemo.dto.IncomeView;
+import com.xpense.xpensedemo.dto.MonthlySummaryDTO;
+import com.xpense.xpensedemo.dto.OutputDTO;
+import com.xpense.xpensedemo.dto.OutputView;
+import com.xpense.xpensedemo.dto.PageResponse;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.exception.InvalidImportFileException;
+import com.xpense.xpensedemo.export.ExportFormat;
+import com.xpense.xpensedemo.metrics.QueryCounter;
+import com.xpense.xpensedemo.model.transaction.Income;
+import com.xpense.xpensedemo.model.transaction.Output;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 @ActiveProfiles("test")
+@Transactional
 @DisplayName("Service Layer Integration Tests")
 class ServiceIntegrationTest {
 
+    @Autowired
+    IncomeService incomeService;
+
+    @Autowired
+    OutputService outputService;
+
+    @Autowired
+    SummaryService summaryService;
+
+    @Autowired
+    AnalyticsService analyticsService;
+
+    @Autowired
+    QueryCounter queryCounter;
+
+    @Autowired
+    EntityManager entityManager;
+
     @Nested
     @DisplayName("Income Service Integration")
     class IncomeServiceIntegration {
@@ -21,6 +74,36 @@ class ServiceIntegrationTest {
             // This test ensures that the Spring context loads properly
             // with all beans configured correctly
         }
+
+        @Test
+        @DisplayName("Keyset pages should cover every income exactly once in (date, id) order")
+        void pagesCoverAllIncomes() {
+            List<IncomeView> seen = new ArrayList<>();
+            String cursor = null;
+            do {
+                PageResponse<IncomeView> page = incomeService.getIncomePage(cursor, 2);
+                assertTrue(page.items().size() <= 2);
+                seen.addAll(page.items());
+                cursor = page.nextCursor();
+            } while (cursor != null);
+
+            assertEquals(incomeService.getAllIncomes().size(), seen.size());
+            for (int i = 1; i < seen.size(); i++) {
+                int byDate = seen.get(i - 1).date().compareTo(seen.get(i).date());
+                assertTrue(byDate < 0 || (byDate == 0 && seen.get(i - 1).id() < seen.get(i).id()));
+            }
+        }
+
+        @Test
+        @DisplayName("NDJSON export should stream one line per income")
+        void exportIncomesAsNdjson() throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            incomeService.exportIncomes(ExportFormat.NDJSON, out);
+
+            String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+            assertEquals(incomeService.getAllIncomes().size(), lines.length);
+        }
     }
 
     @Nested
@@ -33,5 +116,309 @@ class ServiceIntegrationTest {
             // This test ensures that the Spring context loads properly
             // with all beans configured correctly
         }
+
+        @Test
+        @DisplayName("Keyset pages should cover every output exactly once")
+        void pagesCoverAllOutputs() {
+            List<OutputView> seen = new ArrayList<>();
+            String cursor = null;
+            do {
+                PageResponse<OutputView> page = outputService.getOutputPage(cursor, 3);
+                seen.addAll(page.items());
+                cursor = page.nextCursor();
+            } while (cursor != null);
+
+            assertEquals(outputService.getAllOutputs().size(), seen.size());
+            assertEquals(seen.size(), seen.stream().map(OutputView::id).distinct().count());
+        }
+
+        @Test
+        @DisplayName("Listing outputs should cost one statement however many categories they span")
+        void listingOutputsHasConstantStatementCount() {
+            List<OutputDTO> batch = new ArrayList<>();
+            for (String category : List.of("Food", "Transport", "Entertainment", "Health", "Education")) {
+                for (int i = 0; i < 4; i++) {
+                    batch.add(new OutputDTO("Item " + i, category, 10.0 + i, "2024-06-0" + (i + 1)));
+                }
+            }
+            outputService.createOutputs(batch);
+            entityManager.flush();
+            entityManager.clear();
+
+            int listStatements = countStatements(() -> outputService.getAllOutputs());
+            Long id = outputService.getAllOutputs().get(0).getId();
+            entityManager.clear();
+            int byIdStatements = countStatements(() -> List.of(outputService.getOutputById(id).orElseThrow()));
+
+            assertEquals(1, listStatements);
+            assertEquals(1, byIdStatements);
+        }
+
+        // Runs the read and touches every category name, as JSON serialization would
+        private int countStatements(Supplier<List<Output>> read) {
+            queryCounter.start();
+            read.get().forEach(output -> output.getCategory().getName());
+            return queryCounter.stop();
+        }
+
+        @Test
+        @DisplayName("Page and detail reads should use one statement and leave the persistence context empty")
+        void viewReadsSkipPersistenceContext() {
+            entityManager.clear();
+            queryCounter.start();
+
+            PageResponse<OutputView> page = outputService.getOutputPage(null, 50);
+            Optional<OutputView> detail = outputService.getOutputView(page.items().get(0).id());
+
+            assertEquals(2, queryCounter.stop());
+            assertEquals(page.items().get(0), detail.orElseThrow());
+            assertNotNull(detail.get().category().name());
+            assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+        }
+
+        @Test
+        @DisplayName("Range and category filters should only return matching outputs")
+        void filtersByRangeAndCategory() {
+            DateRange firstQuarter = DateRange.of(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 3, 31));
+
+            PageResponse<OutputView> inRange = outputService.getOutputPage(null, 50, firstQuarter, null);
+            PageResponse<OutputView> transport = outputService.getOutputPage(null, 50, firstQuarter, "Transport");
+
+            assertEquals(3, inRange.items().size());
+            assertTrue(inRange.items().stream().noneMatch(o -> o.date().isAfter(firstQuarter.to())));
+            assertEquals(1, transport.items().size());
+            assertEquals("Transport", transport.items().get(0).category().name());
+        }
+
+        @Test
+        @DisplayName("CSV export should stream a header plus one line per output")
+        void exportOutputsAsCsv() throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            outputService.exportOutputs(ExportFormat.CSV, out);
+
+            String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+            assertEquals("id,date,amount,description,category,created_at", lines[0]);
+            assertEquals(outputService.getAllOutputs().size() + 1, lines.length);
+        }
+    }
+
+    @Nested
+    @DisplayName("Summary Service Integration")
+    class SummaryServiceIntegration {
+
+        @Test
+        @DisplayName("Rollup should include backfilled seed data and follow later writes")
+        void rollupFollowsWrites() {
+            YearMonth january = YearMonth.of(2023, 1);
+            MonthlySummaryDTO seeded = summaryService.getMonthlySummary(january, january).get(0);
+            assertEquals(5000.0, seeded.income());
+            assertEquals(2000.0, seeded.expense());
+
+            incomeService.createIncome(new IncomeDTO("Bonus", null, 250.0, "2023-01-31"));
+            outputService.createOutputs(List.of(
+                    new OutputDTO("Dinner", "Food", 40.0, "2023-01-05"),
+                    new OutputDTO("Train", "Transport", 10.0, "2023-01-06")
+            ));
+
+            MonthlySummaryDTO updated = summaryService.getMonthlySummary(january, january).get(0);
+            assertEquals(5250.0, updated.income());
+            assertEquals(2050.0, updated.expense());
+            assertEquals(3200.0, updated.net());
+            assertEquals(2, updated.expenseByCategory().size());
+        }
+
+        @Test
+        @DisplayName("Rollup should follow bulk deletes and recategorization")
+        void rollupFollowsBulkChanges() {
+            YearMonth march = YearMonth.of(2032, 3);
+            DateRange range = DateRange.of(LocalDate.of(2032, 3, 1), LocalDate.of(2032, 3, 31));
+            outputService.createOutputs(List.of(
+                    new OutputDTO("Bulk a", "Food", 10.0, "2032-03-01"),
+                    new OutputDTO("Bulk b", "Food", 20.0, "2032-03-01"),
+                    new OutputDTO("Bulk c", "Transport", 5.0, "2032-03-02")
+            ));
+            incomeService.createIncome(new IncomeDTO("Bulk income", null, 100.0, "2032-03-03"));
+
+            long food = outputService.getAllOutputs().stream()
+                    .filter(output -> output.getCategory() != null && "Food".equals(output.getCategory().getName()))
+                    .count();
+
+            assertEquals(1, outputService.deleteOutputs(range, "Transport"));
+            assertEquals(1, incomeService.deleteIncomes(range));
+            assertEquals(food, outputService.recategorizeOutputs("Food", "Education"));
+
+            MonthlySummaryDTO summary = summaryService.getMonthlySummary(march, march).get(0);
+            assertEquals(0.0, summary.income());
+            assertEquals(30.0, summary.expense());
+            assertEquals(2, summary.expenseCount());
+            assertEquals(1, summary.expenseByCategory().size());
+            assertEquals("Education", summary.expenseByCategory().get(0).categoryName());
+        }
+    }
+
+    @Nested
+    @DisplayName("CSV Import Integration")
+    class ImportIntegration {
+
+        @Test
+        @DisplayName("Output import should store valid rows, report rejected lines and update the rollup")
+        void importOutputs() throws IOException {
+            int before = outputService.getAllOutputs().size();
+            String csv = """
+                    date,amount,description,category
+                    2024-02-01,12.50,"Lunch, with team",Food
+                    2024-02-02,3.20,Bus,Transport
+                    2024-02-03,abc,Broken,Food
+                    2024-02-04,8.00,Gift,Unknown
+
+                    2024-02-05,20.00,Cinema,Entertainment
+                    """;
+
+            ImportReport report = outputService.importOutputs(stream(csv));
+
+            assertEquals(3, report.imported());
+            assertEquals(2, report.rejected());
+            assertEquals(List.of(
+                    new ImportReport.RejectedLine(4, "Invalid amount 'abc'"),
+                    new ImportReport.RejectedLine(5, "Unknown category 'Unknown'")
+            ), report.rejectedLines());
+            assertEquals(before + 3, outputService.getAllOutputs().size());
+
+            MonthlySummaryDTO february = summaryService.getMonthlySummary(YearMonth.of(2024, 2), YearMonth.of(2024, 2)).get(0);
+            assertEquals(35.70, february.expense(), 1e-9);
+            assertEquals(3, february.expenseCount());
+        }
+
+        @Test
+        @DisplayName("Imported ids should not collide with ids assigned by later entity inserts")
+        void importedIdsDoNotCollideWithEntityIds() throws IOException {
+            StringBuilder csv = new StringBuilder("description,amount,date,id,ignored\n");
+            for (int i = 0; i < 120; i++) {
+                csv.append("Salary ").append(i).append(",100,2024-03-01,,x\n");
+            }
+
+            ImportReport report = incomeService.importIncomes(stream(csv.toString()));
+            incomeService.createIncomes(List.of(
+                    new IncomeDTO("After import", null, 1.0, "2024-03-02"),
+                    new IncomeDTO("After import", null, 2.0, "2024-03-02")
+            ));
+            entityManager.flush();
+
+            List<Income> incomes = incomeService.getAllIncomes();
+            assertEquals(120, report.imported());
+            assertEquals(incomes.size(), incomes.stream().map(Income::getId).distinct().count());
+        }
+
+        @Test
+        @DisplayName("Output import should reject a file without the required columns")
+        void importRejectsMissingColumns() {
+            assertThrows(InvalidImportFileException.class,
+                    () -> outputService.importOutputs(stream("date,amount,description\n2024-02-01,1,x\n")));
+        }
+
+        private InputStream stream(String csv) {
+            return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Nested
+    @DisplayName("Analytics Integration")
+    class AnalyticsIntegration {
+
+        private final DateRange year2023 = DateRange.of(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 31));
+
+        @Test
+        @DisplayName("Snapshot loaded at startup should match the seeded transactions")
+        void snapshotMatchesSeedData() {
+            List<AnalyticsBucket> byCategory = analyticsService.aggregate(TransactionKind.OUTPUT, "category", year2023, null, null);
+            assertEquals(5, byCategory.size());
+            assertEquals(new AnalyticsBucket("Education", 4000.00, 1), byCategory.get(0));
+            assertEquals(new AnalyticsBucket("Food", 2000.00, 1), byCategory.get(4));
+
+            List<AnalyticsBucket> byMonth = analyticsService.aggregate(TransactionKind.INCOME, "month", year2023, null, null);
+            assertEquals(List.of("2023-01", "2023-02", "2023-03", "2023-04", "2023-05"),
+                    byMonth.stream().map(AnalyticsBucket::key).toList());
+            assertEquals(35000.00, byMonth.stream().mapToDouble(AnalyticsBucket::total).sum(), 1e-9);
+        }
+
+        @Test
+        @Transactional(propagation = Propagation.NOT_SUPPORTED)
+        @DisplayName("Committed writes should reach the snapshot")
+        void committedWritesReachSnapshot() {
+            DateRange range = DateRange.of(LocalDate.of(2031, 1, 1), LocalDate.of(2031, 1, 31));
+            outputService.createOutput(new OutputDTO("Analytics probe", "Food", 12.34, "2031-01-07"));
+
+            assertEquals(List.of(new AnalyticsBucket("Analytics probe", 12.34, 1)),
+                    analyticsService.aggregate(TransactionKind.OUTPUT, "description", range, "Food", null));
+
+            Long id = outputService.getOutputPage(null, 10, range, null).items().get(0).id();
+            outputService.deleteOutput(id);
+
+            assertEquals(List.of(), analyticsService.aggregate(TransactionKind.OUTPUT, "description", range, null, null));
+        }
+    }
+
+    @Nested
+    @DisplayName("Description Search Integration")
+    class SearchIntegration {
+
+        @Test
+        @DisplayName("Search should rank exact, prefix, word and substring matches and page through them")
+        void searchRanksAndPages() {
+            outputService.createOutputs(List.of(
+                    new OutputDTO("Suberb bakery", "Food", 3.0, "2031-02-01"),
+                    new OutputDTO("Trip with UBER", "Transport", 14.0, "2031-02-02"),
+                    new OutputDTO("Uber Eats", "Food", 22.0, "2031-02-03"),
+                    new OutputDTO("uber", "Transport", 9.0, "2031-02-04"),
+                    new OutputDTO("Lunch", "Food", 11.0, "2031-02-05")
+            ));
+
+            PageResponse<OutputView> first = outputService.searchOutputs("Uber", null, 2);
+            PageResponse<OutputView> second = outputService.searchOutputs("Uber", first.nextCursor(), 2);
+
+            assertEquals(List.of("uber", "Uber Eats"), first.items().stream().map(OutputView::description).toList());
+            assertEquals(List.of("Trip with UBER", "Suberb bakery"), second.items().stream().map(OutputView::description).toList());
+            assertNull(second.nextCursor());
+            assertEquals("Transport", first.items().get(0).category().name());
+        }
+
+        @Test
+        @DisplayName("Search should rank an old exact match above any number of newer substring matches")
+        void searchRanksEveryMatch() {
+            List<IncomeDTO> newer = new ArrayList<>();
+            for (int day = 1; day <= 28; day++) {
+                newer.add(new IncomeDTO("Zorbex payout " + day, null, 1.0, "2032-04-%02d".formatted(day)));
+            }
+            newer.add(new IncomeDTO("zorbex", null, 1.0, "1999-01-01"));
+            incomeService.createIncomes(newer);
+
+            PageResponse<IncomeView> first = incomeService.searchIncomes("zorbex", null, 5);
+            List<String> rest = new ArrayList<>();
+            String cursor = first.nextCursor();
+            while (cursor != null) {
+                PageResponse<IncomeView> page = incomeService.searchIncomes("zorbex", cursor, 5);
+                page.items().forEach(income -> rest.add(income.description()));
+                cursor = page.nextCursor();
+            }
+
+            assertEquals("zorbex", first.items().get(0).description());
+            assertEquals("Zorbex payout 28", first.items().get(1).description());
+            assertEquals(28 - 4, rest.size());
+            assertEquals("Zorbex payout 1", rest.get(rest.size() - 1));
+        }
+
+        @Test
+        @DisplayName("Search should treat LIKE wildcards in the query literally")
+        void searchEscapesWildcards() {
+            incomeService.createIncomes(List.of(
+                    new IncomeDTO("Refund 100% off", null, 5.0, "2031-03-01"),
+                    new IncomeDTO("Refund 1000 off", null, 6.0, "2031-03-02")
+            ));
+
+            PageResponse<IncomeView> page = incomeService.searchIncomes("0% o", null, null);
+
+            assertEquals(List.of("Refund 100% off"), page.items().stream().map(IncomeView::description).toList());
+        }
     }
 }
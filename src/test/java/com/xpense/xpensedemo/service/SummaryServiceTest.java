@@ -0,0 +1,127 @@
+package com.xpense.xpensedemo.service;
+
+import com.xpense.xpensedemo.dto.MonthlySummaryDTO;
+import com.xpense.xpensedemo.enums.TransactionKind;
+import com.xpense.xpensedemo.exception.InvalidDateRangeException;
+import com.xpense.xpensedemo.model.category.Category;
+import com.xpense.xpensedemo.model.summary.MonthlyRollup;
+import com.xpense.xpensedemo.model.summary.MonthlyRollupId;
+import com.xpense.xpensedemo.model.transaction.Income;
+import com.xpense.xpensedemo.model.transaction.Output;
+import com.xpense.xpensedemo.repository.MonthlyRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SummaryServiceTest {
+
+    @Mock
+    private MonthlyRollupRepository rollupRepository;
+
+    @Mock
+    private CategoryService categoryService;
+
+    @InjectMocks
+    private SummaryService summaryService;
+
+    @Test
+    void add_ShouldAggregateRowsPerMonthAndCategoryBeforeWriting() {
+        // Given
+        Category food = new Category(1L, "Food");
+        List<Output> outputs = List.of(
+                new Output(10.0, "Coffee", LocalDate.of(2025, 8, 1), food),
+                new Output(20.0, "Lunch", LocalDate.of(2025, 8, 20), food),
+                new Output(5.0, "Gum", LocalDate.of(2025, 9, 2))
+        );
+
+        // When
+        summaryService.add(TransactionKind.OUTPUT, outputs);
+
+        // Then
+        ArgumentCaptor<List<MonthlyRollup>> rows = ArgumentCaptor.captor();
+        verify(rollupRepository).addAll(rows.capture());
+        assertEquals(2, rows.getValue().size());
+        MonthlyRollup august = rows.getValue().get(0);
+        assertEquals(new MonthlyRollupId(LocalDate.of(2025, 8, 1), TransactionKind.OUTPUT, 1L), august.getId());
+        assertEquals(30.0, august.getTotal());
+        assertEquals(2L, august.getCount());
+        MonthlyRollup september = rows.getValue().get(1);
+        assertEquals(new MonthlyRollupId(LocalDate.of(2025, 9, 1), TransactionKind.OUTPUT, MonthlyRollupId.NO_CATEGORY), september.getId());
+        assertEquals(5.0, september.getTotal());
+        assertEquals(1L, september.getCount());
+    }
+
+    @Test
+    void subtract_ShouldWriteNegativeDelta() {
+        // Given
+        Income income = new Income(100.0, "Salary", LocalDate.of(2025, 8, 12));
+
+        // When
+        summaryService.subtract(TransactionKind.INCOME, List.of(income));
+
+        // Then
+        verify(rollupRepository).addAll(argThat(rows -> rows.size() == 1
+                && rows.get(0).getId().equals(new MonthlyRollupId(LocalDate.of(2025, 8, 1), TransactionKind.INCOME, 0L))
+                && rows.get(0).getTotal() == -100.0
+                && rows.get(0).getCount() == -1));
+    }
+
+    @Test
+    void getMonthlySummary_ShouldReturnEveryMonthInRangeWithNetBalance() {
+        // Given
+        LocalDate august = LocalDate.of(2025, 8, 1);
+        when(rollupRepository.findByMonthRange(august, LocalDate.of(2025, 9, 1))).thenReturn(List.of(
+                new MonthlyRollup(new MonthlyRollupId(august, TransactionKind.INCOME, 0L), 3000.0, 1),
+                new MonthlyRollup(new MonthlyRollupId(august, TransactionKind.OUTPUT, 1L), 450.0, 3),
+                new MonthlyRollup(new MonthlyRollupId(august, TransactionKind.OUTPUT, 0L), 50.0, 1)
+        ));
+        when(categoryService.getCategoryById(1L)).thenReturn(Optional.of(new Category(1L, "Food")));
+
+        // When
+        List<MonthlySummaryDTO> summary = summaryService.getMonthlySummary(YearMonth.of(2025, 8), YearMonth.of(2025, 9));
+
+        // Then
+        assertEquals(2, summary.size());
+        MonthlySummaryDTO aug = summary.get(0);
+        assertEquals(3000.0, aug.income());
+        assertEquals(500.0, aug.expense());
+        assertEquals(2500.0, aug.net());
+        assertEquals(2, aug.expenseByCategory().size());
+        assertEquals("Food", aug.expenseByCategory().get(0).categoryName());
+        assertEquals(YearMonth.of(2025, 9), summary.get(1).month());
+        assertEquals(0.0, summary.get(1).net());
+    }
+
+    @Test
+    void getMonthlySummary_ShouldRejectInvertedRange() {
+        assertThrows(InvalidDateRangeException.class,
+                () -> summaryService.getMonthlySummary(YearMonth.of(2025, 9), YearMonth.of(2025, 8)));
+        verifyNoInteractions(rollupRepository);
+    }
+
+    @Test
+    void getMonthlySummary_ShouldRejectRangeOverMaxMonths() {
+        // Given
+        YearMonth from = YearMonth.of(2000, 1);
+
+        // When & Then
+        assertThrows(InvalidDateRangeException.class,
+                () -> summaryService.getMonthlySummary(from, from.plusMonths(SummaryService.MAX_MONTHS)));
+        verifyNoInteractions(rollupRepository);
+        assertEquals(SummaryService.MAX_MONTHS,
+                summaryService.getMonthlySummary(from, from.plusMonths(SummaryService.MAX_MONTHS - 1)).size());
+    }
+}